@@ -7,6 +7,9 @@ import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.auto.TrajectoryLibrary;
+import frc.robot.util.BSPrefs;
+import frc.robot.util.ConfigWatcher;
 
 /**
  * The VM is configured to automatically run this class, and to call the
@@ -29,11 +32,20 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void robotInit() {
+    // Start loading auto paths first so they are ready long before auto
+    TrajectoryLibrary.getInstance().loadInBackground();
+    BSPrefs.getInstance().enableHotReload();
+
     // Instantiate our RobotContainer. This will perform all our button bindings,
     // and put our
     // autonomous chooser on the dashboard.
     m_robotContainer = new RobotContainer();
     addPeriodic(Subsystems.ledSubsystem::Report, 0.25);
+    addPeriodic(Subsystems.motorAnomalyMonitor::updateDashboard, 0.25);
+    addPeriodic(Subsystems.canBandwidthManager::update, 0.1);
+    addPeriodic(Subsystems.canBandwidthManager::updateDashboard, 0.25);
+    addPeriodic(Subsystems.compressorScheduler::update, 0.1);
+    addPeriodic(Subsystems.compressorScheduler::updateDashboard, 0.25);
     CameraServer.startAutomaticCapture();
   }
 
@@ -57,6 +69,7 @@ public class Robot extends TimedRobot {
     // and running subsystem periodic() methods. This must be called from the
     // robot's periodic
     // block in order for anything in the Command-based framework to work.
+    ConfigWatcher.getInstance().poll();
     CommandScheduler.getInstance().run();
   }
 
@@ -4,7 +4,6 @@ package frc.robot;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.PneumaticHub;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -16,14 +15,18 @@ import frc.robot.auto.AutoManager;
 import frc.robot.commands.DefaultDriveCommand;
 import frc.robot.commands.DetectBallColorCommand;
 import frc.robot.commands.RunDMSCommand;
+import frc.robot.commands.RunMotorHealthCommand;
 import frc.robot.commands.RunWithDisabledInstantCommand;
 import frc.robot.commands.prefs.SaveWheelOffsets;
 import frc.robot.commands.prefs.ZeroWheelOffsets;
+import frc.robot.commands.testing.CharacterizeDrivetrainCommand;
+import frc.robot.commands.testing.CharacterizeDrivetrainCommand.Mechanism;
 import frc.robot.subsystems.DrivetrainSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.robot.subsystems.ShooterFeederSubsystem;
 import frc.robot.subsystems.ShooterSubsystem;
 import frc.robot.subsystems.ShooterSubsystem.ShooterProfile;
+import frc.robot.subsystems.DMS.DriveValues;
 import frc.robot.subsystems.climber.ClimberSubsystem;
 import frc.robot.subsystems.climber.ClimberSubsystem.Positions;
 
@@ -54,11 +57,6 @@ public class RobotContainer {
     private final Joystick leftJoy = new Joystick(0);
     private final Joystick rightJoy = new Joystick(1);
 
-    private final static double minPressure = 110;
-    private final static double maxPressure = 117;
-
-    private final PneumaticHub pneuHub = new PneumaticHub();
-
     public static Alliance alliance = Alliance.Invalid;
 
     // private final CameraControl cameraControl = new CameraControl();
@@ -75,7 +73,8 @@ public class RobotContainer {
                 () -> -OIUtil.modifyAxis((rightJoy.getX())) * DrivetrainSubsystem.MAX_VELOCITY_METERS_PER_SECOND,
                 () -> -OIUtil.modifyAxis((leftJoy.getX()))
                         * DrivetrainSubsystem.MAX_ANGULAR_VELOCITY_RADIANS_PER_SECOND,
-                () -> !leftJoy.getRawButton(13)));
+                () -> !leftJoy.getRawButton(13),
+                leftJoy::getPOV));
 
         // Configure the button bindings
         configureButtonBindings();
@@ -83,8 +82,6 @@ public class RobotContainer {
         // Zero Out the Gyroscope
         m_drivetrainSubsystem.zeroGyroscope();
 
-        pneuHub.enableCompressorAnalog(minPressure, maxPressure);
-
         // Debug telemetry
         CommandScheduler.getInstance().schedule(new CommandBase() {
             @Override
@@ -208,6 +205,12 @@ public class RobotContainer {
         SmartDashboard.putData("Shooter Off", new InstantCommand(() -> m_shooterSubsystem.setProfile(ShooterProfile.Dynamic)).withName("Shoot Off"));
         SmartDashboard.putData("Shooter Low Goal", new InstantCommand(() -> m_shooterSubsystem.setProfile(ShooterProfile.HangerDump)).withName("Shoot Low Goal"));
 
+        // Driver grades the last shot for the shot log
+        new Button(() -> gamepad.getPOV() == 90).whenPressed(m_shooterSubsystem.getShotLogger()::tagLastShotHit);
+        new Button(() -> gamepad.getPOV() == 270).whenPressed(m_shooterSubsystem.getShotLogger()::tagLastShotMiss);
+        SmartDashboard.putData("Shooter/ShotLog/Hit", new RunWithDisabledInstantCommand(m_shooterSubsystem.getShotLogger()::tagLastShotHit).withName("Last Shot Hit"));
+        SmartDashboard.putData("Shooter/ShotLog/Miss", new RunWithDisabledInstantCommand(m_shooterSubsystem.getShotLogger()::tagLastShotMiss).withName("Last Shot Miss"));
+
     }
 
     private void configureClimberButtonBindings() {
@@ -304,6 +307,22 @@ public class RobotContainer {
 
         SmartDashboard.putData("DMS/Enable All", new InstantCommand(() -> Subsystems.ledSubsystem.startSubsystem()).withName("Enable LED/DMS Subsystem"));
         SmartDashboard.putData("DMS/Disable All", new InstantCommand(() -> Subsystems.ledSubsystem.stopSubsystem()).withName("Disable LED/DMS Subsystem"));
+
+        for (String module : DriveValues.MODULE_NAMES) {
+            SmartDashboard.putData("DMS/History/Reset" + module,
+                new RunWithDisabledInstantCommand(() -> Subsystems.ledSubsystem.getHistory().resetModule(module)).withName("Reset " + module + " History"));
+        }
+
+        var motorHealth = new RunMotorHealthCommand();
+        SmartDashboard.putData("DMS/Health/Start", motorHealth.withName("Run Motor Health"));
+        SmartDashboard.putData("MotorAlerts/Clear", new RunWithDisabledInstantCommand(Subsystems.motorAnomalyMonitor::clearAlerts).withName("Clear Motor Alerts"));
+        SmartDashboard.putData("DMS/Health/SaveBaselines", new RunWithDisabledInstantCommand(motorHealth::saveBaselines).withName("Save Motor Health Baselines"));
+
+        SmartDashboard.putData("Drivetrain/Cmd/ClosedLoopVelocity", new RunWithDisabledInstantCommand(() -> m_drivetrainSubsystem.setClosedLoopDrive(true)).withName("Closed Loop Drive"));
+        SmartDashboard.putData("Drivetrain/Cmd/OpenLoopVoltage", new RunWithDisabledInstantCommand(() -> m_drivetrainSubsystem.setClosedLoopDrive(false)).withName("Open Loop Drive"));
+
+        SmartDashboard.putData("Characterization/Drive/Run", new CharacterizeDrivetrainCommand(Mechanism.Drive).withName("Characterize Drive"));
+        SmartDashboard.putData("Characterization/Steer/Run", new CharacterizeDrivetrainCommand(Mechanism.Steer).withName("Characterize Steer"));
     }
 
     // private void configureDebugButtonBindings() {
@@ -329,6 +348,7 @@ public class RobotContainer {
 
     public void disabledPeriodic() {
         m_autoManager.showSelectedAuto();
+        m_autoManager.warmSelectedAuto();
     }
 
     /**
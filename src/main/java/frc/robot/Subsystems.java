@@ -4,9 +4,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import frc.robot.subsystems.Lifecycle;
+import frc.robot.subsystems.BallTracker;
+import frc.robot.subsystems.CANBandwidthManager;
+import frc.robot.subsystems.CompressorScheduler;
 import frc.robot.subsystems.DetectBallSubsystem;
 import frc.robot.subsystems.DrivetrainSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
+import frc.robot.subsystems.MotorAnomalyMonitor;
+import frc.robot.subsystems.PowerManager;
 import frc.robot.subsystems.ShooterFeederSubsystem;
 import frc.robot.subsystems.ShooterSubsystem;
 import frc.robot.subsystems.DMS.LEDSubsystem;
@@ -29,6 +34,11 @@ public class Subsystems {
     public static TurretSubsystem turretSubsystem;
     public static DetectBallSubsystem detectBallSubsystem;
     public static LEDSubsystem ledSubsystem;
+    public static BallTracker ballTracker;
+    public static MotorAnomalyMonitor motorAnomalyMonitor;
+    public static PowerManager powerManager;
+    public static CANBandwidthManager canBandwidthManager;
+    public static CompressorScheduler compressorScheduler;
 
     public static List<Lifecycle> lifecycleSubsystems = new ArrayList<>();
 
@@ -37,12 +47,38 @@ public class Subsystems {
         intakeSubsystem = new IntakeSubsystem();
         climberSubsystem = new ClimberSubsystem();
         visionSubsystem = new VisionSubsystem();
+        ballTracker = new BallTracker();  // periodic must run before shooter and turret
         shooterSubsystem = new ShooterSubsystem();
         feederSubsystem = new ShooterFeederSubsystem();
         turretSubsystem = new TurretSubsystem();
         detectBallSubsystem = new DetectBallSubsystem();
         ledSubsystem = new LEDSubsystem();
 
+        canBandwidthManager = new CANBandwidthManager();
+        drivetrainSubsystem.addCANFrames(canBandwidthManager);
+        shooterSubsystem.addCANFrames(canBandwidthManager);
+        turretSubsystem.addCANFrames(canBandwidthManager);
+        climberSubsystem.addCANFrames(canBandwidthManager);
+        feederSubsystem.addCANFrames(canBandwidthManager);
+        intakeSubsystem.addCANFrames(canBandwidthManager);
+        canBandwidthManager.setModeSources(climberSubsystem::isClimbing, shooterSubsystem::isEnabled);
+        canBandwidthManager.start();
+
+        // Follower checks read the frame periods set above
+        motorAnomalyMonitor = new MotorAnomalyMonitor();
+        drivetrainSubsystem.addMotorMonitors(motorAnomalyMonitor);
+        shooterSubsystem.addMotorMonitors(motorAnomalyMonitor);
+        turretSubsystem.addMotorMonitors(motorAnomalyMonitor);
+        climberSubsystem.addMotorMonitors(motorAnomalyMonitor);
+        feederSubsystem.addMotorMonitors(motorAnomalyMonitor);
+        intakeSubsystem.addMotorMonitors(motorAnomalyMonitor);
+        motorAnomalyMonitor.start();
+
+        powerManager = new PowerManager();
+        powerManager.start();
+
+        compressorScheduler = new CompressorScheduler();
+
         lifecycleSubsystems.add(intakeSubsystem);
         lifecycleSubsystems.add(climberSubsystem);
         lifecycleSubsystems.add(visionSubsystem);
@@ -51,6 +87,7 @@ public class Subsystems {
         lifecycleSubsystems.add(turretSubsystem);
         lifecycleSubsystems.add(detectBallSubsystem);
         lifecycleSubsystems.add(ledSubsystem);
+        lifecycleSubsystems.add(ballTracker);
     }
 
     public static Subsystems getInstance() {
@@ -1,6 +1,8 @@
 package frc.robot.auto;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.function.Supplier;
 
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -34,7 +36,9 @@ public class AutoManager {
     }
 
     private final SendableChooser<AutoStrategies> chooser = new SendableChooser<>();
-    private final HashMap<AutoStrategies, Command> strategyLookup = new HashMap<>();
+    private final EnumMap<AutoStrategies, Supplier<Command>> strategyFactories = new EnumMap<>(AutoStrategies.class);
+    private final EnumMap<AutoStrategies, Command> strategyLookup = new EnumMap<>(AutoStrategies.class);
+    private final EnumSet<AutoStrategies> usedStrategies = EnumSet.noneOf(AutoStrategies.class);
 
     public AutoManager() {
         // chooser.addOption("Debug Auto", AutoStrategies.DebugAuto);
@@ -59,59 +63,77 @@ public class AutoManager {
 
         // Send selector Dashboard.  If it doesn't show in SD, you may need to change the name here.
         SmartDashboard.putData("Auto Selector", chooser);
-        initializeAuto();
+
+        registerStrategies();
+        AutoWarmup.startInBackground();
     }
 
-    public void initializeAuto() {
-        strategyLookup.put(AutoStrategies.FiveBall, new FiveBallStragety());
-        strategyLookup.put(AutoStrategies.TwoBallRight, new AbstractTwoBallStrategy(-90, 0, -1.20));
-        strategyLookup.put(AutoStrategies.TwoBallCenter, new AbstractTwoBallStrategy(-170, -1.77, -0.31));
-        strategyLookup.put(AutoStrategies.TwoBallHangar, new AbstractTwoBallStrategy(135, -1.27, 1.27));
-        strategyLookup.put(AutoStrategies.JustShoot, new JustShoot());
-        strategyLookup.put(AutoStrategies.FiveBallStrategyPartDeux, new FiveBallStrategyPartDeux());
-        strategyLookup.put(AutoStrategies.ShootFirstBall5Ball, new ShootFirstBall5Ball());
-        strategyLookup.put(AutoStrategies.RIGHT5ball, new RIGHT5ball());
-        strategyLookup.put(AutoStrategies.LEFT5ball, new LEFT5ball());
-        strategyLookup.put(AutoStrategies.ScrambleHangar, new ScrambleHangar());
-        strategyLookup.put(AutoStrategies.ScrambleHangarOneBall, new ScrambleHangarOneOnly());
-        strategyLookup.put(AutoStrategies.OneBall, new OneBallStrategy());
-        strategyLookup.put(AutoStrategies.BlockOpponentOneBall, new BlockOpponentOneBallStrategy());
-        strategyLookup.put(AutoStrategies.FourBall, new FourBallStrategy());
+    /**
+     * Strategies are only described here, they are built on first use. See warmSelectedAuto.
+     */
+    private void registerStrategies() {
+        strategyFactories.put(AutoStrategies.DebugAuto, DebugAuto::new);
+        strategyFactories.put(AutoStrategies.DebugTimed, DebugTimedStrategy::new);
+        strategyFactories.put(AutoStrategies.DebugPath, DebugSwervePathStrategy::new);
+        strategyFactories.put(AutoStrategies.DebugRotate, RotateTuneStrategy::new);
+        strategyFactories.put(AutoStrategies.FiveBall, FiveBallStragety::new);
+        strategyFactories.put(AutoStrategies.TwoBallRight, () -> new AbstractTwoBallStrategy(-90, 0, -1.20));
+        strategyFactories.put(AutoStrategies.TwoBallCenter, () -> new AbstractTwoBallStrategy(-170, -1.77, -0.31));
+        strategyFactories.put(AutoStrategies.TwoBallHangar, () -> new AbstractTwoBallStrategy(135, -1.27, 1.27));
+        strategyFactories.put(AutoStrategies.JustShoot, JustShoot::new);
+        strategyFactories.put(AutoStrategies.FiveBallStrategyPartDeux, FiveBallStrategyPartDeux::new);
+        strategyFactories.put(AutoStrategies.ShootFirstBall5Ball, ShootFirstBall5Ball::new);
+        strategyFactories.put(AutoStrategies.RIGHT5ball, RIGHT5ball::new);
+        strategyFactories.put(AutoStrategies.LEFT5ball, LEFT5ball::new);
+        strategyFactories.put(AutoStrategies.ScrambleHangar, ScrambleHangar::new);
+        strategyFactories.put(AutoStrategies.ScrambleHangarOneBall, ScrambleHangarOneOnly::new);
+        strategyFactories.put(AutoStrategies.OneBall, OneBallStrategy::new);
+        strategyFactories.put(AutoStrategies.BlockOpponentOneBall, BlockOpponentOneBallStrategy::new);
+        strategyFactories.put(AutoStrategies.FourBall, FourBallStrategy::new);
     }
 
-    public Command getSelectedCommand() {
-        Command selected = null;
+    /**
+     * Called on disable. Only strategies that were handed out to run are thrown
+     * away, they are rebuilt the next time they are selected.
+     */
+    public void initializeAuto() {
+        for (AutoStrategies used : usedStrategies) {
+            strategyLookup.remove(used);
+        }
+        usedStrategies.clear();
+    }
 
-        if (strategyLookup.containsKey(chooser.getSelected())) {
-            selected = strategyLookup.get(chooser.getSelected());
-        } else {
-            switch (chooser.getSelected()) {
-    
-                case DebugAuto:
-                    selected = new DebugAuto();
-                    break;
-    
-                case DebugTimed:
-                    selected = new DebugTimedStrategy();
-                    break;
-    
-                case DebugPath:
-                    selected = new DebugSwervePathStrategy();
-                    break;
-    
-                case DebugRotate:
-                    selected = new RotateTuneStrategy();
-                    break;
+    /**
+     * Builds the selected strategy if it changed. Runs on the main thread while
+     * disabled so the build cost never lands in autonomousInit.
+     */
+    public void warmSelectedAuto() {
+        AutoStrategies selected = chooser.getSelected();
+        if (selected != null && !strategyLookup.containsKey(selected)) {
+            long start = System.nanoTime();
+            strategyLookup.put(selected, build(selected));
+            SmartDashboard.putNumber("Auto/BuildTimeMs", (System.nanoTime() - start) / 1.0e6);
+        }
+    }
 
-                case FiveBall:
-                    selected = new FiveBallStragety();
-                    break;
+    private Command build(AutoStrategies strategy) {
+        var factory = strategyFactories.get(strategy);
+        return (factory != null) ? factory.get() : new InstantCommand();
+    }
 
-                default:
-                    selected = new InstantCommand();
-            }
+    public Command getSelectedCommand() {
+        AutoStrategies selected = chooser.getSelected();
+        if (selected == null) {
+            return new InstantCommand();
+        }
+        Command command = strategyLookup.get(selected);
+        if (command == null) {
+            System.out.println("AutoManager: " + selected + " was not prebuilt, building now");
+            command = build(selected);
+            strategyLookup.put(selected, command);
         }
-        return selected;
+        usedStrategies.add(selected);
+        return command;
     }
 
     public void showSelectedAuto() {
@@ -0,0 +1,157 @@
+package frc.robot.auto;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import frc.robot.Constants;
+import frc.robot.subsystems.DrivetrainSubsystem;
+import frc.robot.subsystems.RotationController;
+import frc.robot.subsystems.SwerveSetpointGenerator;
+
+/**
+ * Pays class loading and JIT costs while disabled instead of in the first
+ * cycles of auto.
+ *
+ * Command construction is not thread safe (CommandGroupBase tracks grouped
+ * commands in a static set), so strategies themselves are built on the main
+ * thread by AutoManager. What can be done off the main thread is done here:
+ * loading every auto and command class, and running the per cycle drive math
+ * on throwaway objects until the JIT has compiled it.
+ */
+class AutoWarmup {
+    private static final String[] PRELOAD_PACKAGES = {
+        "frc/robot/auto/",
+        "frc/robot/commands/"
+    };
+    private static final int MATH_ITERATIONS = 20000;
+
+    private AutoWarmup() {
+    }
+
+    static void startInBackground() {
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            int classes = preloadClasses();
+            exerciseDriveMath();
+            System.out.println("AutoWarmup: loaded " + classes + " classes and warmed drive math in " +
+                (System.currentTimeMillis() - start) + " ms");
+        }, "AutoWarmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Loads, without initializing, every class in the auto and command packages
+     */
+    static int preloadClasses() {
+        ClassLoader loader = AutoWarmup.class.getClassLoader();
+        int count = 0;
+        try {
+            File source = new File(AutoWarmup.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (source.isFile()) {
+                try (JarFile jar = new JarFile(source)) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        count += preload(loader, entries.nextElement().getName());
+                    }
+                }
+            } else {
+                for (String pkg : PRELOAD_PACKAGES) {
+                    count += preloadDirectory(loader, new File(source, pkg), pkg);
+                }
+            }
+        } catch (IOException | URISyntaxException | SecurityException e) {
+            System.out.println("AutoWarmup: unable to preload classes: " + e);
+        }
+        return count;
+    }
+
+    private static int preloadDirectory(ClassLoader loader, File directory, String prefix) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        int count = 0;
+        for (File file : files) {
+            if (file.isDirectory()) {
+                count += preloadDirectory(loader, file, prefix + file.getName() + "/");
+            } else {
+                count += preload(loader, prefix + file.getName());
+            }
+        }
+        return count;
+    }
+
+    private static int preload(ClassLoader loader, String path) {
+        if (!path.endsWith(".class")) {
+            return 0;
+        }
+        boolean wanted = false;
+        for (String pkg : PRELOAD_PACKAGES) {
+            wanted |= path.startsWith(pkg);
+        }
+        if (!wanted) {
+            return 0;
+        }
+        String name = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+        try {
+            Class.forName(name, false, loader);
+            return 1;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Runs the math the drive commands and drivetrain run every cycle, on
+     * objects that are never connected to hardware
+     */
+    static void exerciseDriveMath() {
+        TrapezoidProfile.Constraints constraints = new TrapezoidProfile.Constraints(
+            Constants.Auto.MaxSpeedMetersPerSecond, Constants.Auto.MaxAccelerationMetersPerSecondSquared);
+        TrapezoidProfile.State goal = new TrapezoidProfile.State(4.2, 0.0);
+        TrapezoidProfile.State state = new TrapezoidProfile.State(0, 0);
+        RotationController rotation = new RotationController();
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(
+            DrivetrainSubsystem.KINEMATICS, DrivetrainSubsystem.MAX_VELOCITY_METERS_PER_SECOND);
+        double[] steerAngles = new double[4];
+        Translation2d target = new Translation2d(0, -4.2);
+
+        double sink = 0;
+        for (int i = 0; i < MATH_ITERATIONS; i++) {
+            double t = (i % 200) * 0.02;
+            if (i % 200 == 0) {
+                state = new TrapezoidProfile.State(0, 0);
+            }
+            state = new TrapezoidProfile(constraints, goal, state).calculate(0.02);
+
+            Translation2d current = new Translation2d(0, -state.position);
+            double driveAngle = Math.atan2(target.getY() - current.getY(), target.getX() - current.getX());
+            // Degrees per second, the same path the drive commands use
+            double twist = rotation.calculate(MathUtil.inputModulus(t * 90.0, -180, 180), -90.0);
+            ChassisSpeeds speeds = ChassisSpeeds.fromFieldRelativeSpeeds(
+                state.velocity * Math.cos(driveAngle), state.velocity * Math.sin(driveAngle),
+                Math.toRadians(twist), Rotation2d.fromDegrees(t * 90.0));
+
+            SwerveModuleState[] states = generator.generate(speeds, steerAngles, 0.02);
+            for (int m = 0; m < states.length; m++) {
+                steerAngles[m] = states[m].angle.getRadians();
+            }
+            sink += DrivetrainSubsystem.KINEMATICS.toChassisSpeeds(states).vxMetersPerSecond;
+        }
+        if (Double.isNaN(sink)) {
+            System.out.println("AutoWarmup: NaN in drive math");
+        }
+    }
+}
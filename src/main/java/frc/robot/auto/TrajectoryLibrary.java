@@ -0,0 +1,281 @@
+package frc.robot.auto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import frc.robot.Constants;
+import frc.robot.subsystems.DrivetrainSubsystem;
+
+/**
+ * All auto paths, generated once and kept in memory.
+ *
+ * Spline generation takes long enough on the RIO to delay robot startup or the
+ * start of auto, so paths are cached as binary files in the deploy directory.
+ * Each file carries a signature of the waypoints and constraints it was
+ * generated from; a missing or stale file is regenerated and rewritten on the
+ * robot. Run
+ *
+ * <pre>
+ *   ./gradlew generateTrajectories
+ * </pre>
+ *
+ * after changing a path to ship fresh files with the next deploy.
+ *
+ * Loading starts from robotInit on a background thread. get() never waits for
+ * it, strategies look their paths up when their command starts, by which
+ * point loading has long finished.
+ *
+ * To add a path, add a definition in the static block below and look it up by
+ * name.
+ */
+public class TrajectoryLibrary {
+    public static final String ROBOT_DIRECTORY = "/home/lvuser/deploy/trajectories";
+
+    public static final String DEBUG_S = "DebugS";
+    public static final String DEBUG_STRAIGHT = "DebugStraight";
+
+    private static final int MAGIC = 0x42535452;  // "BSTR"
+    private static final int FORMAT_VERSION = 1;
+    private static final String EXTENSION = ".traj";
+
+    private static final Map<String, PathDefinition> definitions = new LinkedHashMap<>();
+
+    static {
+        define(new PathDefinition(DEBUG_S,
+            new Pose2d(0, 0, new Rotation2d(0)),
+            List.of(new Translation2d(1, 1), new Translation2d(2, -1)),
+            new Pose2d(3, 0, new Rotation2d(0))));
+
+        define(new PathDefinition(DEBUG_STRAIGHT,
+            new Pose2d(0, 0, new Rotation2d(0)),
+            List.of(),
+            new Pose2d(2, 0, new Rotation2d(0))));
+    }
+
+    private static TrajectoryLibrary instance;
+
+    private final Map<String, Trajectory> trajectories = new ConcurrentHashMap<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    /**
+     * Waypoints and constraints of a single path
+     */
+    public static class PathDefinition {
+        public final String name;
+        public final Pose2d start;
+        public final List<Translation2d> interior;
+        public final Pose2d end;
+        public final double maxSpeed;
+        public final double maxAcceleration;
+        public final boolean reversed;
+
+        public PathDefinition(String name, Pose2d start, List<Translation2d> interior, Pose2d end) {
+            this(name, start, interior, end,
+                Constants.Auto.MaxSpeedMetersPerSecond, Constants.Auto.MaxAccelerationMetersPerSecondSquared, false);
+        }
+
+        public PathDefinition(String name, Pose2d start, List<Translation2d> interior, Pose2d end,
+                double maxSpeed, double maxAcceleration, boolean reversed) {
+            this.name = name;
+            this.start = start;
+            this.interior = interior;
+            this.end = end;
+            this.maxSpeed = maxSpeed;
+            this.maxAcceleration = maxAcceleration;
+            this.reversed = reversed;
+        }
+
+        public Trajectory generate() {
+            TrajectoryConfig config = new TrajectoryConfig(maxSpeed, maxAcceleration)
+                .setKinematics(DrivetrainSubsystem.KINEMATICS)
+                .setReversed(reversed);
+            return TrajectoryGenerator.generateTrajectory(start, interior, end, config);
+        }
+
+        /**
+         * Identifies everything the generated trajectory depends on, so a cached
+         * file can be checked against the current code
+         */
+        public long signature() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(FORMAT_VERSION).append(';');
+            append(sb, start);
+            for (Translation2d point : interior) {
+                sb.append(point.getX()).append(',').append(point.getY()).append(';');
+            }
+            append(sb, end);
+            sb.append(maxSpeed).append(';').append(maxAcceleration).append(';').append(reversed).append(';');
+            sb.append(Constants.DRIVETRAIN_TRACKWIDTH_METERS).append(';').append(Constants.DRIVETRAIN_WHEELBASE_METERS);
+
+            // 64 bit FNV-1a
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < sb.length(); i++) {
+                hash ^= sb.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static void append(StringBuilder sb, Pose2d pose) {
+            sb.append(pose.getX()).append(',').append(pose.getY()).append(',')
+                .append(pose.getRotation().getRadians()).append(';');
+        }
+    }
+
+    private static void define(PathDefinition definition) {
+        definitions.put(definition.name, definition);
+    }
+
+    public static Map<String, PathDefinition> getDefinitions() {
+        return Collections.unmodifiableMap(definitions);
+    }
+
+    public static TrajectoryLibrary getInstance() {
+        if (instance == null) {
+            instance = new TrajectoryLibrary();
+        }
+        return instance;
+    }
+
+    private TrajectoryLibrary() {
+    }
+
+    /**
+     * Loads every path on a background thread, generating any that are missing
+     * or out of date
+     */
+    public void loadInBackground() {
+        Thread loader = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                loadAll(new File(ROBOT_DIRECTORY));
+            } finally {
+                loaded.countDown();
+            }
+            System.out.println("TrajectoryLibrary: " + trajectories.size() + " paths ready in " +
+                (System.currentTimeMillis() - start) + " ms");
+        }, "TrajectoryLibrary");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadAll(File directory) {
+        for (PathDefinition definition : definitions.values()) {
+            File file = fileFor(directory, definition.name);
+            Trajectory trajectory = null;
+            try {
+                trajectory = read(file, definition.signature());
+            } catch (IOException e) {
+                System.out.println("TrajectoryLibrary: unable to read " + file + ": " + e.getMessage());
+            }
+
+            if (trajectory == null) {
+                System.out.println("TrajectoryLibrary: generating " + definition.name);
+                trajectory = definition.generate();
+                try {
+                    write(trajectory, file, definition.signature());
+                } catch (IOException e) {
+                    System.out.println("TrajectoryLibrary: unable to cache " + file + ": " + e.getMessage());
+                }
+            }
+            trajectories.put(definition.name, trajectory);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded.getCount() == 0;
+    }
+
+    /**
+     * Returns the named trajectory, never blocks
+     *
+     * @return the trajectory, or null if the loader hasn't got to it yet
+     */
+    public Trajectory get(String name) {
+        if (!definitions.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown trajectory: " + name);
+        }
+        Trajectory trajectory = trajectories.get(name);
+        if (trajectory == null) {
+            System.out.println("TrajectoryLibrary: " + name + " is not loaded yet");
+        }
+        return trajectory;
+    }
+
+    public static File fileFor(File directory, String name) {
+        return new File(directory, name + EXTENSION);
+    }
+
+    /**
+     * Writes the trajectory states as
+     * magic, version, signature, count, then count x (t, v, a, x, y, heading, curvature)
+     */
+    public static void write(Trajectory trajectory, File file, long signature) throws IOException {
+        file.getParentFile().mkdirs();
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            List<Trajectory.State> states = trajectory.getStates();
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(signature);
+            out.writeInt(states.size());
+            for (Trajectory.State state : states) {
+                out.writeDouble(state.timeSeconds);
+                out.writeDouble(state.velocityMetersPerSecond);
+                out.writeDouble(state.accelerationMetersPerSecondSq);
+                out.writeDouble(state.poseMeters.getX());
+                out.writeDouble(state.poseMeters.getY());
+                out.writeDouble(state.poseMeters.getRotation().getRadians());
+                out.writeDouble(state.curvatureRadPerMeter);
+            }
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Unable to rename " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * @return the trajectory, or null if the file is missing or was generated
+     *         from a different definition
+     */
+    public static Trajectory read(File file, long signature) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != signature) {
+                return null;
+            }
+            int count = in.readInt();
+            List<Trajectory.State> states = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double time = in.readDouble();
+                double velocity = in.readDouble();
+                double acceleration = in.readDouble();
+                Pose2d pose = new Pose2d(in.readDouble(), in.readDouble(), new Rotation2d(in.readDouble()));
+                double curvature = in.readDouble();
+                states.add(new Trajectory.State(time, velocity, acceleration, pose, curvature));
+            }
+            return new Trajectory(states);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package frc.robot.commands;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -20,24 +21,49 @@ public class DefaultDriveCommand extends CommandBase {
     private final DoubleSupplier m_translationYSupplier;
     private final DoubleSupplier m_rotationSupplier;
     private final BooleanSupplier m_fieldRelativeSupplier;
+    private final IntSupplier m_snapAngleSupplier;
     private boolean shootThresholdSpeedEnabled = true;
 
-    
+    // Holds the heading the driver left the robot at or snapped to
+    private final HeadingLock headingLock;
 
     public DefaultDriveCommand(DrivetrainSubsystem drivetrainSubsystem,
                                DoubleSupplier translationXSupplier,
                                DoubleSupplier translationYSupplier,
                                DoubleSupplier rotationSupplier,
                                BooleanSupplier fieldRelativeSupplier) {
+        this(drivetrainSubsystem, translationXSupplier, translationYSupplier, rotationSupplier,
+            fieldRelativeSupplier, () -> -1);
+    }
+
+    /**
+     * @param snapAngleSupplier POV style angle to snap to, clockwise degrees
+     *                          from field forward, or -1 for none
+     */
+
+    public DefaultDriveCommand(DrivetrainSubsystem drivetrainSubsystem,
+                               DoubleSupplier translationXSupplier,
+                               DoubleSupplier translationYSupplier,
+                               DoubleSupplier rotationSupplier,
+                               BooleanSupplier fieldRelativeSupplier,
+                               IntSupplier snapAngleSupplier) {
         this.m_drivetrainSubsystem = drivetrainSubsystem;
         this.m_translationXSupplier = translationXSupplier;
         this.m_translationYSupplier = translationYSupplier;
         this.m_rotationSupplier = rotationSupplier;
         this.m_fieldRelativeSupplier = fieldRelativeSupplier;
+        this.m_snapAngleSupplier = snapAngleSupplier;
+        this.headingLock = new HeadingLock(drivetrainSubsystem.getRotationController());
         SmartDashboard.setDefaultNumber("Clamped Shooting Drive Velocity", DRIVE_WHILE_SHOOTING_SPEED);
+        SmartDashboard.setDefaultBoolean("Drivetrain/HeadingLock", true);
         addRequirements(drivetrainSubsystem);
     }
 
+    @Override
+    public void initialize() {
+        headingLock.reset(m_drivetrainSubsystem.getGyroResetCount());
+    }
+
     @Override
     public void execute() {
         // You can use `new ChassisSpeeds(...)` for robot-oriented movement instead of field-oriented movement
@@ -62,6 +88,10 @@ public class DefaultDriveCommand extends CommandBase {
             //  System.out.println("[ShootDrive Post] (" + translationX + ", " + translationY + ")");
         }
 
+        rotationSupplier = headingLock.calculate(rotationSupplier, gyroRotation.getDegrees(),
+            m_snapAngleSupplier.getAsInt(), SmartDashboard.getBoolean("Drivetrain/HeadingLock", true),
+            m_drivetrainSubsystem.getGyroResetCount());
+
         final ChassisSpeeds chassisSpeeds = (m_fieldRelativeSupplier.getAsBoolean()) ?
             ChassisSpeeds.fromFieldRelativeSpeeds(
                 translationX,
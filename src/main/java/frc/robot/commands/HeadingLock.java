@@ -0,0 +1,79 @@
+package frc.robot.commands;
+
+import edu.wpi.first.math.MathUtil;
+import frc.robot.subsystems.RotationController;
+
+/**
+ * Teleop heading lock. Passes driver rotation through while the stick is in
+ * use. Once it is released the heading the robot settles at is held, and a
+ * snap angle turns the robot to that heading, both through the shared
+ * profiled rotation controller.
+ *
+ * The held heading is in the gyro's frame, so zeroing or offsetting the gyro
+ * drops the lock and it is taken again at the new heading.
+ */
+class HeadingLock {
+    /** Rotation stick input below this (rad/s) counts as the driver not rotating */
+    static final double ROTATION_DEADBAND = 0.05;
+
+    private final RotationController controller;
+    private boolean locked = false;
+    private double lastRotationCommand = 0.0;
+    private int gyroResetCount = 0;
+
+    HeadingLock(RotationController controller) {
+        this.controller = controller;
+    }
+
+    void reset(int gyroResetCount) {
+        this.locked = false;
+        this.lastRotationCommand = 0.0;
+        this.gyroResetCount = gyroResetCount;
+    }
+
+    /**
+     * @param driverRotation driver rotation in rad/s
+     * @param currentDegrees gyro heading
+     * @param snapAngle      POV style angle to snap to, clockwise degrees from
+     *                       field forward, or -1 for none
+     * @param enabled        whether the heading is held at all
+     * @param gyroResetCount DrivetrainSubsystem.getGyroResetCount()
+     * @return rotation rate in rad/s
+     */
+    double calculate(double driverRotation, double currentDegrees, int snapAngle, boolean enabled, int gyroResetCount) {
+        if (gyroResetCount != this.gyroResetCount) {
+            this.gyroResetCount = gyroResetCount;
+            locked = false;
+        }
+
+        if (Math.abs(driverRotation) > ROTATION_DEADBAND || !enabled) {
+            locked = false;
+        } else if (snapAngle >= 0) {
+            // POV is clockwise, the gyro is counter-clockwise
+            if (!locked) {
+                controller.reset(currentDegrees, Math.toDegrees(lastRotationCommand));
+            }
+            controller.setSetpoint(MathUtil.inputModulus(-snapAngle, -180, 180));
+            locked = true;
+        } else if (!locked) {
+            // Lock where the robot will come to rest after ramping down the turn
+            controller.reset(currentDegrees, Math.toDegrees(lastRotationCommand));
+            controller.setSetpoint(currentDegrees + stoppingDistance(Math.toDegrees(lastRotationCommand)));
+            locked = true;
+        }
+
+        double rotation = locked ?
+            Math.toRadians(controller.calculate(currentDegrees)) :
+            driverRotation;
+        lastRotationCommand = rotation;
+        return rotation;
+    }
+
+    boolean isLocked() {
+        return locked;
+    }
+
+    private static double stoppingDistance(double velocity) {
+        return Math.signum(velocity) * velocity * velocity / (2.0 * RotationController.MAX_ACCELERATION);
+    }
+}
@@ -0,0 +1,95 @@
+package frc.robot.commands;
+
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Subsystems;
+import frc.robot.subsystems.DMS.MotorHealth;
+import frc.robot.util.BSPrefs;
+
+/**
+ * Runs the motor health check of every mechanism outside the drivetrain, one
+ * after another, and publishes the results under DMS/Health.
+ *
+ * Center the turret and retract the climber first. After a run on a known
+ * good robot, saveBaselines() records it as the reference for later runs.
+ */
+public class RunMotorHealthCommand extends CommandBase {
+  private final List<MotorHealth> checks;
+  private int current = 0;
+
+  public RunMotorHealthCommand() {
+    checks = List.of(
+      Subsystems.shooterSubsystem.createShooterMotorHealth(),
+      Subsystems.shooterSubsystem.createBackspinMotorHealth(),
+      Subsystems.turretSubsystem.createMotorHealth(),
+      Subsystems.climberSubsystem.createMotorHealth(),
+      Subsystems.feederSubsystem.createMotorHealth(),
+      Subsystems.intakeSubsystem.createMotorHealth());
+    addRequirements(Subsystems.shooterSubsystem, Subsystems.turretSubsystem, Subsystems.climberSubsystem,
+      Subsystems.feederSubsystem, Subsystems.intakeSubsystem);
+  }
+
+  @Override
+  public void initialize() {
+    current = 0;
+    Subsystems.canBandwidthManager.setDiagnostics(true);
+    checks.get(current).start();
+    SmartDashboard.putString("DMS/Health/Summary", "Running");
+  }
+
+  @Override
+  public void execute() {
+    if (current < checks.size() && checks.get(current).run()) {
+      checks.get(current).updateDashboard();
+      current++;
+      if (current < checks.size()) {
+        checks.get(current).start();
+      }
+    }
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    if (current < checks.size()) {
+      checks.get(current).stop();
+    }
+    Subsystems.canBandwidthManager.setDiagnostics(false);
+    updateSummary();
+  }
+
+  @Override
+  public boolean isFinished() {
+    return current >= checks.size() || DriverStation.isDisabled();
+  }
+
+  /**
+   * Records the last run as the baseline for every mechanism that finished
+   */
+  public void saveBaselines() {
+    BSPrefs baselines = BSPrefs.getDmsBaselineInstance();
+    for (MotorHealth check : checks) {
+      check.saveBaseline(baselines);
+      check.updateDashboard();
+    }
+    baselines.savePreferences();
+    updateSummary();
+    System.out.println("[MotorHealth] Baselines saved");
+  }
+
+  private void updateSummary() {
+    StringBuilder summary = new StringBuilder();
+    for (MotorHealth check : checks) {
+      if (check.getStatus() != MotorHealth.Status.Good) {
+        summary.append(check.getName()).append(": ").append(check.getStatus());
+        if (!check.getFault().isEmpty()) {
+          summary.append(" (").append(check.getFault()).append(")");
+        }
+        summary.append("; ");
+      }
+    }
+    SmartDashboard.putString("DMS/Health/Summary", summary.length() == 0 ? "All Good" : summary.toString());
+  }
+}
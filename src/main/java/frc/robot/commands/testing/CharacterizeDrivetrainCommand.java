@@ -0,0 +1,285 @@
+package frc.robot.commands.testing;
+
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Subsystems;
+import frc.robot.subsystems.DrivetrainSubsystem;
+import frc.robot.util.CsvLog;
+import frc.robot.util.LeastSquares;
+
+/**
+ * Identifies the drive or steer feedforward, V = kS * sgn(v) + kV * v + kA * a
+ *
+ * Runs a quasistatic ramp and a dynamic step in each direction on all four
+ * modules, sampling applied voltage, velocity and position at 200 Hz. Every
+ * sample is logged to /home/lvuser/characterization.csv and the gains are fit
+ * on the robot when the test finishes. Results are published under
+ * Characterization/Drive or Characterization/Steer and printed as bsprefs
+ * lines.
+ *
+ * Drive characterization moves the robot roughly 4 m forward and back, give it
+ * room. Steer characterization spins the modules in place.
+ */
+public class CharacterizeDrivetrainCommand extends CommandBase {
+  public enum Mechanism {
+    Drive, Steer
+  }
+
+  private enum Phase {
+    QuasistaticForward, QuasistaticReverse, DynamicForward, DynamicReverse, Done
+  }
+
+  private static final double SAMPLE_PERIOD = 0.005;
+  private static final double PAUSE_TIME = 1.0;
+  private static final int MAX_SAMPLES = 6000;  // per module
+  /** Samples slower than this are treated as stationary and left out of the fit */
+  private static final double MIN_VELOCITY_FRACTION = 0.02;
+  /** Samples either side used to differentiate velocity */
+  private static final int ACCEL_WINDOW = 2;
+
+  private static CsvLog log;
+
+  private final Mechanism mechanism;
+  private final double rampRate;      // V/s
+  private final double rampTime;      // s
+  private final double stepVoltage;   // V
+  private final double stepTime;      // s
+  private final double unitsPerTick;
+
+  private final Notifier notifier = new Notifier(this::sample);
+  /**
+   * Held by the notifier for a whole sample. Stopping the notifier doesn't
+   * wait for a callback that is already running, taking this after stop()
+   * does.
+   */
+  private final Object sampleLock = new Object();
+
+  // Sample buffers, [module][sample], only touched while holding sampleLock
+  private final double[][] time = new double[4][MAX_SAMPLES];
+  private final double[][] voltage = new double[4][MAX_SAMPLES];
+  private final double[][] velocity = new double[4][MAX_SAMPLES];
+  private final int[][] phase = new int[4][MAX_SAMPLES];
+  private int count = 0;
+
+  private volatile Phase currentPhase = Phase.Done;
+  private double phaseStart;
+  private boolean pausing;
+
+  public CharacterizeDrivetrainCommand(Mechanism mechanism) {
+    this.mechanism = mechanism;
+    if (mechanism == Mechanism.Drive) {
+      rampRate = 0.5;
+      rampTime = 6.0;
+      stepVoltage = 4.0;
+      stepTime = 1.5;
+      unitsPerTick = DrivetrainSubsystem.DRIVE_METERS_PER_TICK;
+    } else {
+      rampRate = 1.0;
+      rampTime = 4.0;
+      stepVoltage = 3.0;
+      stepTime = 1.0;
+      unitsPerTick = DrivetrainSubsystem.STEER_RADIANS_PER_TICK;
+    }
+    notifier.setName("Characterize" + mechanism);
+    addRequirements(Subsystems.drivetrainSubsystem);
+  }
+
+  @Override
+  public void initialize() {
+    if (log == null) {
+      log = new CsvLog("/home/lvuser/characterization.csv",
+        "mechanism", "phase", "time", "module", "voltage", "velocity", "position");
+    }
+    synchronized (sampleLock) {
+      count = 0;
+      phaseStart = Timer.getFPGATimestamp();
+      pausing = false;
+      currentPhase = Phase.QuasistaticForward;
+    }
+
+    Subsystems.drivetrainSubsystem.setDmsMode(true);
+    System.out.println("Characterization: starting " + mechanism);
+    notifier.startPeriodic(SAMPLE_PERIOD);
+  }
+
+  /**
+   * Runs on the notifier thread, sets this sample's voltage and records the
+   * response to the last one
+   */
+  private void sample() {
+    synchronized (sampleLock) {
+      sampleLocked();
+    }
+  }
+
+  private void sampleLocked() {
+    if (currentPhase == Phase.Done) {
+      return;
+    }
+    double now = Timer.getFPGATimestamp();
+    double elapsed = now - phaseStart;
+    double duration = isQuasistatic(currentPhase) ? rampTime : stepTime;
+
+    if (pausing) {
+      setVoltage(0.0);
+      if (elapsed >= PAUSE_TIME) {
+        pausing = false;
+        phaseStart = now;
+        currentPhase = Phase.values()[currentPhase.ordinal() + 1];
+      }
+      return;
+    }
+    if (elapsed >= duration || count >= MAX_SAMPLES) {
+      setVoltage(0.0);
+      pausing = true;
+      phaseStart = now;
+      if (currentPhase == Phase.DynamicReverse || count >= MAX_SAMPLES) {
+        currentPhase = Phase.Done;
+      }
+      return;
+    }
+
+    double sign = (currentPhase == Phase.QuasistaticForward || currentPhase == Phase.DynamicForward) ? 1.0 : -1.0;
+    double command = sign * (isQuasistatic(currentPhase) ? rampRate * elapsed : stepVoltage);
+    setVoltage(command);
+
+    TalonFX[] motors = motors();
+    for (int m = 0; m < 4; m++) {
+      // Applied voltage, the module may have flipped the drive direction to hold the angle
+      double volts = motors[m].getMotorOutputVoltage();
+      double speed = motors[m].getSelectedSensorVelocity() * 10.0 * unitsPerTick;
+      double position = motors[m].getSelectedSensorPosition() * unitsPerTick;
+      time[m][count] = now;
+      voltage[m][count] = volts;
+      velocity[m][count] = speed;
+      phase[m][count] = currentPhase.ordinal();
+      log.log(mechanism, currentPhase, now, m, volts, speed, position);
+    }
+    count++;
+  }
+
+  private static boolean isQuasistatic(Phase phase) {
+    return phase == Phase.QuasistaticForward || phase == Phase.QuasistaticReverse;
+  }
+
+  private void setVoltage(double volts) {
+    if (mechanism == Mechanism.Drive) {
+      Subsystems.drivetrainSubsystem.characterizeDrive(volts);
+    } else {
+      Subsystems.drivetrainSubsystem.characterizeSteer(volts);
+    }
+  }
+
+  private TalonFX[] motors() {
+    var info = (mechanism == Mechanism.Drive) ?
+      Subsystems.drivetrainSubsystem.getDriveMotors() :
+      Subsystems.drivetrainSubsystem.getSteerMotors();
+    return new TalonFX[] { info.FL, info.FR, info.RL, info.RR };
+  }
+
+  @Override
+  public boolean isFinished() {
+    return currentPhase == Phase.Done;
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    notifier.stop();
+    int samples;
+    synchronized (sampleLock) {
+      // Any callback still running has finished, later ones see Done
+      currentPhase = Phase.Done;
+      samples = count;
+    }
+    setVoltage(0.0);
+    Subsystems.drivetrainSubsystem.setDmsMode(false);
+
+    if (interrupted) {
+      System.out.println("Characterization: " + mechanism + " interrupted, not fitting");
+      return;
+    }
+    synchronized (sampleLock) {
+      fit(samples);
+    }
+  }
+
+  private void fit(int count) {
+    double maxSpeed = 0;
+    for (int m = 0; m < 4; m++) {
+      for (int i = 0; i < count; i++) {
+        maxSpeed = Math.max(maxSpeed, Math.abs(velocity[m][i]));
+      }
+    }
+    double minSpeed = maxSpeed * MIN_VELOCITY_FRACTION;
+
+    int rows = 0;
+    double[][] x = new double[4 * count][];
+    double[] y = new double[4 * count];
+    for (int m = 0; m < 4; m++) {
+      for (int i = ACCEL_WINDOW; i < count - ACCEL_WINDOW; i++) {
+        // Only differentiate within a single phase
+        if (phase[m][i - ACCEL_WINDOW] != phase[m][i + ACCEL_WINDOW] || Math.abs(velocity[m][i]) < minSpeed) {
+          continue;
+        }
+        double dt = time[m][i + ACCEL_WINDOW] - time[m][i - ACCEL_WINDOW];
+        double accel = (velocity[m][i + ACCEL_WINDOW] - velocity[m][i - ACCEL_WINDOW]) / dt;
+        x[rows] = new double[] { Math.signum(velocity[m][i]), velocity[m][i], accel };
+        y[rows] = voltage[m][i];
+        rows++;
+      }
+    }
+
+    if (rows < 20) {
+      System.out.println("Characterization: only " + rows + " usable samples for " + mechanism + ", check the log");
+      return;
+    }
+
+    double[][] xs = new double[rows][];
+    double[] ys = new double[rows];
+    System.arraycopy(x, 0, xs, 0, rows);
+    System.arraycopy(y, 0, ys, 0, rows);
+
+    double[] gains;
+    try {
+      gains = LeastSquares.solve(xs, ys);
+    } catch (IllegalArgumentException e) {
+      System.out.println("Characterization: " + mechanism + " fit failed, " + e.getMessage());
+      return;
+    }
+
+    double mean = 0;
+    for (double v : ys) {
+      mean += v / rows;
+    }
+    double residual = 0;
+    double total = 0;
+    for (int i = 0; i < rows; i++) {
+      double predicted = gains[0] * xs[i][0] + gains[1] * xs[i][1] + gains[2] * xs[i][2];
+      residual += (ys[i] - predicted) * (ys[i] - predicted);
+      total += (ys[i] - mean) * (ys[i] - mean);
+    }
+    double rSquared = (total > 0) ? 1.0 - residual / total : 0.0;
+
+    String prefix = "Characterization/" + mechanism;
+    SmartDashboard.putNumber(prefix + "/kS", gains[0]);
+    SmartDashboard.putNumber(prefix + "/kV", gains[1]);
+    SmartDashboard.putNumber(prefix + "/kA", gains[2]);
+    SmartDashboard.putNumber(prefix + "/RSquared", rSquared);
+    SmartDashboard.putNumber(prefix + "/Samples", rows);
+
+    // Free speed and acceleration at 12V implied by the fit
+    if (gains[1] > 0 && gains[2] > 0) {
+      SmartDashboard.putNumber(prefix + "/MaxVelocity", (DrivetrainSubsystem.MAX_VOLTAGE - gains[0]) / gains[1]);
+      SmartDashboard.putNumber(prefix + "/MaxAcceleration", (DrivetrainSubsystem.MAX_VOLTAGE - gains[0]) / gains[2]);
+    }
+
+    System.out.println("Characterization: " + mechanism + " fit from " + rows + " samples, r^2 " + String.format("%.3f", rSquared));
+    System.out.println(mechanism + "KS," + gains[0]);
+    System.out.println(mechanism + "KV," + gains[1]);
+    System.out.println(mechanism + "KA," + gains[2]);
+  }
+}
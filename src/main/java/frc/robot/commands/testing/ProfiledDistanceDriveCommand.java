@@ -89,6 +89,8 @@ public class ProfiledDistanceDriveCommand extends CommandBase {
 
     this.currentState = new TrapezoidProfile.State(0, 0); // assume zero initial velocity
     this.goal = new TrapezoidProfile.State(startPose.getDistance(xy_trans), endSpeed);
+    Subsystems.drivetrainSubsystem.getRotationController().reset(
+        Subsystems.drivetrainSubsystem.getGyroscopeRotation().getDegrees());
 
     System.out.println("****************> SDDC Initialize");
     System.out.println("Current Pose: " + startPose);
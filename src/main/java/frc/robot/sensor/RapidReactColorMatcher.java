@@ -86,18 +86,7 @@ public class RapidReactColorMatcher {
      * Returns whether the ball matches our alliance color OR was not identified
      */
     public boolean doesBallMatchAlliance() {
-        RapidReactColorMatcher.MatchedColor allianceColor = MatchedColor.Unknown;
-
-        if (DriverStation.getAlliance() == Alliance.Red) {
-            allianceColor = MatchedColor.Red;
-        } else if (DriverStation.getAlliance() == Alliance.Blue) {
-            allianceColor = MatchedColor.Blue;
-        }
-
-        // Currently allow unknown as a pass-thru
-        if (allianceColor == MatchedColor.Unknown ||
-            allianceColor == this.getMatchedColor() ||
-            MatchedColor.Unknown == this.getMatchedColor()) {
+        if (matchesAlliance(this.getMatchedColor())) {
             badBallDetected = false;
             return true;
         }
@@ -109,5 +98,23 @@ public class RapidReactColorMatcher {
         return false;
     }
 
+    /**
+     * Returns whether a color matches our alliance color OR was not identified
+     */
+    public static boolean matchesAlliance(MatchedColor color) {
+        RapidReactColorMatcher.MatchedColor allianceColor = MatchedColor.Unknown;
+
+        if (DriverStation.getAlliance() == Alliance.Red) {
+            allianceColor = MatchedColor.Red;
+        } else if (DriverStation.getAlliance() == Alliance.Blue) {
+            allianceColor = MatchedColor.Blue;
+        }
+
+        // Currently allow unknown as a pass-thru
+        return allianceColor == MatchedColor.Unknown ||
+            allianceColor == color ||
+            MatchedColor.Unknown == color;
+    }
+
 
 }
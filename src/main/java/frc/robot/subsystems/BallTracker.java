@@ -0,0 +1,137 @@
+package frc.robot.subsystems;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Subsystems;
+import frc.robot.sensor.RapidReactColorMatcher;
+import frc.robot.sensor.RapidReactColorMatcher.MatchedColor;
+
+/**
+ * Follows each cargo from the color sensor through the feeder into the shooter
+ * and remembers its color after the sensor loses sight of it.
+ *
+ * Shooter and turret both ask the tracker whether a mismatched ball is on the
+ * way instead of polling the color sensor themselves, so they act on the same
+ * decision in the same cycle and hold it until the ball has actually left the
+ * robot. Must be constructed before the shooter and turret so its periodic runs
+ * first.
+ *
+ * The intake has no sensor, cargo is picked up by the model when it reaches the
+ * color sensor. Intake state is used to tell a ball being ejected from a brief
+ * loss of sight.
+ */
+public class BallTracker extends SubsystemBase implements Lifecycle {
+  /** How long a ball that disappeared from the sensor without feeding is kept */
+  private static final double STAGED_LOST_TIMEOUT = 0.25;
+  /** How long after leaving the sensor a fed ball is considered still in the feeder/wheel */
+  private static final double FEEDING_CLEAR_TIME = 0.5;
+
+  public enum Slot {
+    Staged, Feeding
+  }
+
+  public static class Cargo {
+    private MatchedColor color = MatchedColor.Unknown;
+    private Slot slot = Slot.Staged;
+    private double slotTime;
+    private double lastSeen;
+
+    public MatchedColor getColor() { return color; }
+    public Slot getSlot() { return slot; }
+
+    public boolean matchesAlliance() {
+      return RapidReactColorMatcher.matchesAlliance(color);
+    }
+
+    @Override
+    public String toString() {
+      return color.name();
+    }
+  }
+
+  private Cargo staged = null;
+  private final List<Cargo> feeding = new ArrayList<>();
+
+  public BallTracker() {}
+
+  @Override
+  public void autoInit() {
+    reset();
+  }
+
+  @Override
+  public void teleopInit() {
+    reset();
+  }
+
+  public void reset() {
+    staged = null;
+    feeding.clear();
+  }
+
+  @Override
+  public void periodic() {
+    final double now = Timer.getFPGATimestamp();
+    var detectBall = Subsystems.detectBallSubsystem;
+    boolean detected = detectBall.isEnabled() && detectBall.isBallDetected();
+
+    if (detected) {
+      if (staged == null) {
+        staged = new Cargo();
+        staged.slotTime = now;
+      }
+      staged.lastSeen = now;
+
+      // Latch the first confident color, the reading gets noisy as the ball moves
+      var color = detectBall.getDetector().getMatchedColor();
+      if (staged.color == MatchedColor.Unknown && color != null) {
+        staged.color = color;
+        if (!staged.matchesAlliance()) {
+          System.out.println("!!! MISMATCHED BALL STAGED: " + color + " !!!");
+        }
+      }
+    } else if (staged != null) {
+      if (Subsystems.feederSubsystem.isShooting()) {
+        staged.slot = Slot.Feeding;
+        staged.slotTime = now;
+        feeding.add(staged);
+        staged = null;
+      } else if (Subsystems.intakeSubsystem.isEjecting() || (now - staged.lastSeen) > STAGED_LOST_TIMEOUT) {
+        staged = null;
+      }
+    }
+
+    feeding.removeIf(cargo -> (now - cargo.slotTime) > FEEDING_CLEAR_TIME);
+
+    SmartDashboard.putString("BallTracker/Staged", (staged != null) ? staged.toString() : "Empty");
+    SmartDashboard.putNumber("BallTracker/Feeding", feeding.size());
+    SmartDashboard.putBoolean("BallTracker/MismatchQueued", isMismatchedBallQueued());
+  }
+
+  /**
+   * The ball waiting at the color sensor, or null
+   */
+  public Cargo getStagedCargo() {
+    return staged;
+  }
+
+  /**
+   * Whether a ball of the other alliance's color is staged for, or on its way
+   * through, the shooter
+   */
+  public boolean isMismatchedBallQueued() {
+    if (staged != null && !staged.matchesAlliance()) {
+      return true;
+    }
+    for (Cargo cargo : feeding) {
+      if (!cargo.matchesAlliance()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,320 @@
+package frc.robot.subsystems;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.util.MotorConfigQueue;
+
+/**
+ * Owns the status frame periods of every SparkMax and TalonFX.
+ *
+ * Each controller registers the frames it cares about with a period per
+ * robot mode, e.g. the shooter follower only sends velocity quickly while
+ * shooting and the climber only sends position quickly while climbing. When
+ * the mode changes the frames whose period differs are queued on the
+ * MotorConfigQueue, nothing is written while the mode holds.
+ *
+ * The bus load of the registered devices is estimated from their frame rates
+ * and published next to the roboRIO's measured utilization, so a new frame
+ * profile can be checked before it goes on the robot.
+ */
+public class CANBandwidthManager {
+    public enum Mode {
+        Disabled, Auto, Teleop, Climbing, Shooting,
+        /** Motor health checks, every motor is sampled */
+        Diagnostics
+    }
+
+    private static final Mode[] MODES = Mode.values();
+
+    private static final double BUS_BITS_PER_SECOND = 1_000_000.0;
+    /** Extended id, 8 data bytes and typical bit stuffing */
+    private static final double BITS_PER_FRAME = 135.0;
+
+    private static final int SPARK_CONTROL_PERIOD_MS = 20;
+    private static final int TALON_CONTROL_PERIOD_MS = 10;
+
+    private static class Frame {
+        final String key;
+        final int[] periods = new int[MODES.length];
+        /** Period last queued, -1 until the first write */
+        volatile int applied = -1;
+        /** Only frames given a profile are written, the rest are estimated at their default */
+        boolean managed = false;
+
+        Frame(String key, int defaultPeriod) {
+            this.key = key;
+            Arrays.fill(periods, defaultPeriod);
+        }
+    }
+
+    /**
+     * Frame profile of one controller, frames that are never given a period
+     * keep their firmware default and are only counted in the estimate.
+     * Every profiled frame is written on start, a controller that wasn't
+     * power cycled still has the last run's periods.
+     */
+    public abstract static class Controller<F extends Enum<F>> {
+        private final String name;
+        private final int controlPeriodMs;
+        private final Map<F, Frame> frames = new LinkedHashMap<>();
+
+        private Controller(String name, int controlPeriodMs) {
+            this.name = name;
+            this.controlPeriodMs = controlPeriodMs;
+        }
+
+        void addDefault(F frame, int periodMs) {
+            frames.put(frame, new Frame(name + "/" + frame.name(), periodMs));
+        }
+
+        /**
+         * Same period in every mode
+         */
+        public Controller<F> frame(F frame, int periodMs) {
+            Frame entry = get(frame);
+            Arrays.fill(entry.periods, periodMs);
+            entry.managed = true;
+            return this;
+        }
+
+        /**
+         * Slow period normally, fast period in the listed modes
+         */
+        public Controller<F> frame(F frame, int periodMs, int fastPeriodMs, Mode... fastModes) {
+            frame(frame, periodMs);
+            for (Mode mode : fastModes) {
+                get(frame).periods[mode.ordinal()] = fastPeriodMs;
+            }
+            return this;
+        }
+
+        /**
+         * Period configured by other code, only counted in the estimate
+         */
+        public Controller<F> preset(F frame, int periodMs) {
+            frame(frame, periodMs);
+            get(frame).managed = false;
+            return this;
+        }
+
+        /**
+         * Period the frame is being sent at, as far as we know. -1 before the
+         * manager starts, 0 for a frame the controller doesn't send.
+         */
+        public int getActivePeriod(F frame) {
+            Frame entry = frames.get(frame);
+            if (entry == null) {
+                return 0;
+            }
+            return entry.managed ? entry.applied : entry.periods[0];
+        }
+
+        private Frame get(F frame) {
+            Frame entry = frames.get(frame);
+            if (entry == null) {
+                entry = new Frame(name + "/" + frame.name(), 0);
+                frames.put(frame, entry);
+            }
+            return entry;
+        }
+
+        private int apply(Mode mode) {
+            int writes = 0;
+            for (Map.Entry<F, Frame> entry : frames.entrySet()) {
+                Frame frame = entry.getValue();
+                int period = frame.periods[mode.ordinal()];
+                if (frame.managed && period != frame.applied) {
+                    write(frame.key, entry.getKey(), period);
+                    frame.applied = period;
+                    writes++;
+                }
+            }
+            return writes;
+        }
+
+        private double framesPerSecond(Mode mode) {
+            double rate = 1000.0 / controlPeriodMs;
+            for (Frame frame : frames.values()) {
+                int period = frame.periods[mode.ordinal()];
+                if (period > 0) {
+                    rate += 1000.0 / period;
+                }
+            }
+            return rate;
+        }
+
+        abstract void write(String key, F frame, int periodMs);
+    }
+
+    private static class SparkFrames extends Controller<PeriodicFrame> {
+        private final CANSparkMax motor;
+
+        SparkFrames(String name, CANSparkMax motor) {
+            super(name, SPARK_CONTROL_PERIOD_MS);
+            this.motor = motor;
+            addDefault(PeriodicFrame.kStatus0, 10);
+            addDefault(PeriodicFrame.kStatus1, 20);
+            addDefault(PeriodicFrame.kStatus2, 20);
+        }
+
+        @Override
+        void write(String key, PeriodicFrame frame, int periodMs) {
+            MotorConfigQueue.getInstance().enqueueRev(key, () -> motor.setPeriodicFramePeriod(frame, periodMs));
+        }
+    }
+
+    private static class TalonFrames extends Controller<StatusFrameEnhanced> {
+        private final TalonFX motor;
+
+        TalonFrames(String name, TalonFX motor) {
+            super(name, TALON_CONTROL_PERIOD_MS);
+            this.motor = motor;
+            addDefault(StatusFrameEnhanced.Status_1_General, 10);
+            addDefault(StatusFrameEnhanced.Status_2_Feedback0, 20);
+            addDefault(StatusFrameEnhanced.Status_3_Quadrature, 160);
+            addDefault(StatusFrameEnhanced.Status_4_AinTempVbat, 160);
+            addDefault(StatusFrameEnhanced.Status_8_PulseWidth, 160);
+            addDefault(StatusFrameEnhanced.Status_10_Targets, 160);
+            addDefault(StatusFrameEnhanced.Status_12_Feedback1, 250);
+            addDefault(StatusFrameEnhanced.Status_13_Base_PIDF0, 160);
+            addDefault(StatusFrameEnhanced.Status_14_Turn_PIDF1, 250);
+            addDefault(StatusFrameEnhanced.Status_Brushless_Current, 50);
+        }
+
+        @Override
+        void write(String key, StatusFrameEnhanced frame, int periodMs) {
+            MotorConfigQueue.getInstance().enqueueCtre(key, () -> motor.setStatusFramePeriod(frame, periodMs));
+        }
+    }
+
+    private final List<Controller<?>> controllers = new ArrayList<>();
+    /** Frames per second of devices that aren't managed here, CANCoders, the gyro, ... */
+    private double otherFramesPerSecond = 0.0;
+    private BooleanSupplier climbing = () -> false;
+    private BooleanSupplier shooting = () -> false;
+    private boolean diagnostics = false;
+    private Mode mode = null;
+    private final double[] estimates = new double[MODES.length];
+
+    public Controller<PeriodicFrame> spark(String name, CANSparkMax motor) {
+        return add(new SparkFrames(name, motor));
+    }
+
+    public Controller<StatusFrameEnhanced> talon(String name, TalonFX motor) {
+        return add(new TalonFrames(name, motor));
+    }
+
+    private <F extends Enum<F>> Controller<F> add(Controller<F> controller) {
+        if (mode != null) {
+            throw new IllegalStateException("Cannot add controllers after the manager has started: " + controller.name);
+        }
+        controllers.add(controller);
+        return controller;
+    }
+
+    /**
+     * Counts frames of a device that isn't managed here in the estimate
+     */
+    public void other(int count, int periodMs) {
+        otherFramesPerSecond += count * 1000.0 / periodMs;
+    }
+
+    public void setModeSources(BooleanSupplier climbing, BooleanSupplier shooting) {
+        this.climbing = climbing;
+        this.shooting = shooting;
+    }
+
+    /**
+     * Speeds up every motor's frames for a health check
+     */
+    public void setDiagnostics(boolean diagnostics) {
+        this.diagnostics = diagnostics;
+        update();
+    }
+
+    /**
+     * Applies the profile of the starting mode and estimates every profile
+     */
+    public void start() {
+        for (Mode m : MODES) {
+            double framesPerSecond = otherFramesPerSecond;
+            for (Controller<?> controller : controllers) {
+                framesPerSecond += controller.framesPerSecond(m);
+            }
+            estimates[m.ordinal()] = framesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+            System.out.println(String.format("[CANBandwidthManager] %s estimated %.0f%%", m, 100 * estimates[m.ordinal()]));
+        }
+        update();
+    }
+
+    private Mode currentMode() {
+        if (diagnostics) {
+            return Mode.Diagnostics;
+        }
+        if (DriverStation.isDisabled()) {
+            return Mode.Disabled;
+        }
+        // The shooter's closed loop needs its velocity frames more than the
+        // climber needs faster position while the two overlap
+        if (shooting.getAsBoolean()) {
+            return Mode.Shooting;
+        }
+        if (climbing.getAsBoolean()) {
+            return Mode.Climbing;
+        }
+        return DriverStation.isAutonomous() ? Mode.Auto : Mode.Teleop;
+    }
+
+    /**
+     * Switches profiles when the mode changes, call from robot periodic
+     */
+    public void update() {
+        Mode next = currentMode();
+        if (next == mode) {
+            return;
+        }
+        int writes = 0;
+        for (Controller<?> controller : controllers) {
+            writes += controller.apply(next);
+        }
+        System.out.println("[CANBandwidthManager] " + mode + " -> " + next + ", " + writes + " frame periods queued");
+        mode = next;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Estimated fraction of the bus used by the registered devices in a mode
+     */
+    public double getEstimatedUtilization(Mode mode) {
+        return estimates[mode.ordinal()];
+    }
+
+    public void updateDashboard() {
+        if (mode == null) {
+            return;
+        }
+        CANStatus canStatus = RobotController.getCANStatus();
+        SmartDashboard.putString("CAN/Mode", mode.name());
+        SmartDashboard.putNumber("CAN/EstimatedUtilization", estimates[mode.ordinal()]);
+        SmartDashboard.putNumber("CAN/MeasuredUtilization", canStatus.percentBusUtilization);
+        SmartDashboard.putNumber("CAN/BusOffCount", canStatus.busOffCount);
+        SmartDashboard.putNumber("CAN/TxFullCount", canStatus.txFullCount);
+    }
+}
@@ -0,0 +1,150 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.PneumaticHub;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Subsystems;
+
+/**
+ * Runs the compressor when the robot can spare the current.
+ *
+ * The compressor draws 10+ A, and the worst time to take it is while the
+ * flywheel spins up, a burst is being fed or the climber is pulling. It is
+ * paused through those and for a moment after, then tops the tanks back up
+ * while the robot is quiet. The PowerManager can also turn it off when the
+ * battery sags.
+ *
+ * Pressure never drops below the floor the intake and climber cylinders need:
+ * below it, or when the pressure trend says it will get there soon, the
+ * compressor runs through any pause. Only a critical battery overrides that.
+ */
+public class CompressorScheduler {
+    private static final double MIN_PRESSURE = 110;
+    private static final double MAX_PRESSURE = 117;
+    /** Lowest pressure the intake and climber cylinders work reliably at */
+    private static final double FLOOR_PRESSURE = 80;
+    /** Compress through a pause when the floor is predicted this soon */
+    private static final double FLOOR_HORIZON = 5.0;      // seconds
+    /** Once compressing for the floor, keep going until this far above it */
+    private static final double FLOOR_RECOVERY = 10.0;
+    /** Quiet time after a high current action before compressing again */
+    private static final double RESUME_DELAY = 0.5;
+    private static final double SPIN_UP_RATIO = 0.9;
+
+    private static final double TREND_SAMPLE_PERIOD = 0.5;
+    private static final double TREND_GAIN = 0.3;
+
+    public enum State {
+        Compressing, Full, SpinUp, Shooting, Climbing, PowerLimited, Floor
+    }
+
+    private final PneumaticHub hub = new PneumaticHub();
+
+    private State state = null;
+    private boolean enabled = false;
+    private double lastBusy = Double.NEGATIVE_INFINITY;
+    private State lastBusyState = null;
+    private double pressure = 0.0;
+    private double lastPressure = Double.NaN;
+    private double lastPressureTime = 0.0;
+    private double trend = 0.0;                 // psi per second
+
+    /**
+     * Decides whether to compress, call from robot periodic
+     */
+    public void update() {
+        final double now = Timer.getFPGATimestamp();
+        pressure = hub.getPressure(0);
+        if (now - lastPressureTime >= TREND_SAMPLE_PERIOD) {
+            if (!Double.isNaN(lastPressure)) {
+                double slope = (pressure - lastPressure) / (now - lastPressureTime);
+                trend += TREND_GAIN * (slope - trend);
+            }
+            lastPressure = pressure;
+            lastPressureTime = now;
+        }
+
+        State busy = null;
+        if (Subsystems.climberSubsystem.isClimbing()) {
+            busy = State.Climbing;
+        } else if (Subsystems.feederSubsystem.isShooting()) {
+            busy = State.Shooting;
+        } else if (Subsystems.shooterSubsystem.isSpinningUp(SPIN_UP_RATIO)) {
+            busy = State.SpinUp;
+        }
+        if (busy != null) {
+            lastBusy = now;
+            lastBusyState = busy;
+        } else if (now - lastBusy < RESUME_DELAY) {
+            busy = lastBusyState;
+        }
+
+        State next;
+        PowerManager power = Subsystems.powerManager;
+        boolean needed = pressure < FLOOR_PRESSURE || getSecondsToFloor() < FLOOR_HORIZON ||
+            (state == State.Floor && pressure < FLOOR_PRESSURE + FLOOR_RECOVERY);
+        if (power.getTier() == PowerManager.Tier.Critical) {
+            next = State.PowerLimited;
+        } else if (needed) {
+            next = State.Floor;
+        } else if (!power.isCompressorAllowed()) {
+            next = State.PowerLimited;
+        } else if (busy != null) {
+            next = busy;
+        } else {
+            next = (pressure >= MAX_PRESSURE) ? State.Full : State.Compressing;
+        }
+
+        // Full still leaves the hub in charge of when to start again
+        boolean run = next == State.Compressing || next == State.Full || next == State.Floor;
+        if (run != enabled) {
+            if (run) {
+                hub.enableCompressorAnalog(MIN_PRESSURE, MAX_PRESSURE);
+            } else {
+                hub.disableCompressor();
+            }
+            enabled = run;
+        }
+        if (next != state) {
+            if (next == State.Floor || next == State.PowerLimited) {
+                System.out.println(String.format("[CompressorScheduler] %s at %.0f psi", next, pressure));
+            }
+            state = next;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public double getPressure() {
+        return pressure;
+    }
+
+    /**
+     * Pressure trend, negative while air is being used faster than it's made
+     */
+    public double getPressureTrend() {
+        return trend;
+    }
+
+    /**
+     * Time until the pressure reaches the floor at the current trend,
+     * infinite while it isn't falling
+     */
+    public double getSecondsToFloor() {
+        if (trend >= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(0.0, (pressure - FLOOR_PRESSURE) / -trend);
+    }
+
+    public void updateDashboard() {
+        SmartDashboard.putString("Pneumatics/State", (state == null) ? "" : state.name());
+        SmartDashboard.putNumber("Pneumatics/Pressure", pressure);
+        SmartDashboard.putNumber("Pneumatics/PsiPerSecond", trend);
+        SmartDashboard.putNumber("Pneumatics/SecondsToFloor", Math.min(getSecondsToFloor(), 999));
+        SmartDashboard.putBoolean("Pneumatics/Compressing", hub.getCompressor());
+        SmartDashboard.putNumber("Pneumatics/CompressorAmps", hub.getCompressorCurrent());
+    }
+}
@@ -0,0 +1,166 @@
+package frc.robot.subsystems.DMS;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.util.CsvLog;
+import frc.robot.util.LeastSquares;
+
+/**
+ * Keeps every DMS result in /home/lvuser/dms_history.csv and watches each
+ * module's current across runs.
+ *
+ * A module's baseline is the average of its first few runs, or of the first
+ * few runs after it was reset when the module was swapped. A module whose
+ * latest current has drifted from that baseline is flagged, a slow bearing
+ * or gearbox failure shows up as current creeping up run after run long
+ * before it fails the single-run DMS check.
+ */
+public class DMSHistory {
+    private static final String HISTORY_FILE = "/home/lvuser/dms_history.csv";
+    private static final String RESET = "Reset";
+
+    /** Runs averaged into the baseline */
+    private static final int BASELINE_RUNS = 3;
+    /** Latest current this far from the baseline is flagged */
+    private static final double DRIFT_LIMIT = 0.2;
+    /** Runs used for the trend line */
+    private static final int TREND_RUNS = 10;
+
+    private final CsvLog log;
+    /** Current of each run since the last reset, keyed by mechanism/module */
+    private final Map<String, List<Double>> currents = new HashMap<>();
+
+    public DMSHistory() {
+        load();
+        log = new CsvLog(HISTORY_FILE, "epochMillis", "date", "mechanism", "module", "vel", "velStdDev", "amp", "ampStdDev", "status");
+        updateDashboard("Drive");
+        updateDashboard("Steer");
+    }
+
+    private void load() {
+        if (!new File(HISTORY_FILE).exists()) {
+            return;
+        }
+        int rows = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(HISTORY_FILE))) {
+            reader.readLine();  // header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 7) {
+                    continue;
+                }
+                if (RESET.equals(parts[2])) {
+                    reset(parts[3]);
+                    continue;
+                }
+                try {
+                    add(parts[2], parts[3], Double.parseDouble(parts[6]));
+                    rows++;
+                } catch (NumberFormatException e) {
+                    DriverStation.reportWarning("Skipping DMS history entry: " + line, false);
+                }
+            }
+        } catch (IOException e) {
+            DriverStation.reportError("Unable to read DMS history: " + e.getMessage(), false);
+        }
+        System.out.println("[DMSHistory] Loaded " + rows + " module results");
+    }
+
+    private void add(String mechanism, String module, double amp) {
+        currents.computeIfAbsent(mechanism + "/" + module, k -> new ArrayList<>()).add(amp);
+    }
+
+    private void reset(String module) {
+        currents.remove("Drive/" + module);
+        currents.remove("Steer/" + module);
+    }
+
+    /**
+     * Appends one DMS phase's results and refreshes the trend view
+     */
+    public void record(String mechanism, DMSStats stats, DriveValues status) {
+        long epochMillis = System.currentTimeMillis();
+        String date = LocalDateTime.now().toString();
+        for (int i = 0; i < 4; i++) {
+            String module = DriveValues.MODULE_NAMES[i];
+            var velocity = stats.getVelocity(i);
+            var current = stats.getCurrent(i);
+            log.log(epochMillis, date, mechanism, module,
+                velocity.getMean(), velocity.getStdDev(), current.getMean(), current.getStdDev(), (int) status.get(i));
+            add(mechanism, module, current.getMean());
+        }
+        updateDashboard(mechanism);
+    }
+
+    /**
+     * Starts a module's baseline over, for when it has been rebuilt or swapped
+     */
+    public void resetModule(String module) {
+        reset(module);
+        log.log(System.currentTimeMillis(), LocalDateTime.now().toString(), RESET, module, 0, 0, 0, 0, 0);
+        updateDashboard("Drive");
+        updateDashboard("Steer");
+        System.out.println("[DMSHistory] Reset baseline for " + module);
+    }
+
+    private void updateDashboard(String mechanism) {
+        StringBuilder flagged = new StringBuilder();
+        for (String module : DriveValues.MODULE_NAMES) {
+            String prefix = "DMS/History/" + mechanism + "/" + module;
+            List<Double> runs = currents.getOrDefault(mechanism + "/" + module, List.of());
+            SmartDashboard.putNumber(prefix + "/Runs", runs.size());
+            if (runs.size() <= BASELINE_RUNS) {
+                SmartDashboard.putBoolean(prefix + "/Drifted", false);
+                continue;
+            }
+
+            double baseline = 0;
+            for (int i = 0; i < BASELINE_RUNS; i++) {
+                baseline += runs.get(i) / BASELINE_RUNS;
+            }
+            double latest = runs.get(runs.size() - 1);
+            double drift = (baseline > 0) ? (latest - baseline) / baseline : 0.0;
+            boolean drifted = Math.abs(drift) > DRIFT_LIMIT;
+
+            SmartDashboard.putNumber(prefix + "/BaselineAmp", baseline);
+            SmartDashboard.putNumber(prefix + "/LatestAmp", latest);
+            SmartDashboard.putNumber(prefix + "/Drift", drift);
+            SmartDashboard.putNumber(prefix + "/AmpPerRun", trend(runs));
+            SmartDashboard.putBoolean(prefix + "/Drifted", drifted);
+            if (drifted) {
+                flagged.append(module).append(String.format(" %+.0f%%; ", drift * 100));
+            }
+        }
+        SmartDashboard.putString("DMS/History/" + mechanism + "/Flagged", flagged.toString());
+    }
+
+    /**
+     * Slope of a line through the most recent runs, amps per run
+     */
+    private static double trend(List<Double> runs) {
+        int count = Math.min(TREND_RUNS, runs.size());
+        int first = runs.size() - count;
+        double[][] x = new double[count][];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = new double[] { 1.0, i };
+            y[i] = runs.get(first + i);
+        }
+        try {
+            return LeastSquares.solve(x, y)[1];
+        } catch (IllegalArgumentException e) {
+            return 0.0;
+        }
+    }
+}
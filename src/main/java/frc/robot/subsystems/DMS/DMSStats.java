@@ -1,52 +1,110 @@
 package frc.robot.subsystems.DMS;
 
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.util.StreamingStats;
+
+/**
+ * Per module current and velocity statistics gathered during a DMS motor test.
+ *
+ * Each module keeps a running mean, variance, min/max and median of the
+ * absolute readings. Adding a sample is O(1) and does not allocate, so it can
+ * run every loop of the test.
+ */
 public class DMSStats {
     private static final double VEL_THRESHOLD = 0.85;
     private static final double AMP_THRESHOLD = 0.8;
 
-    public DriveInfo<Double> current = new DriveInfo<>(0.0);
-    public DriveInfo<Double> velocity = new DriveInfo<>(0.0);
+    private final StreamingStats[] current = new StreamingStats[4];
+    private final StreamingStats[] velocity = new StreamingStats[4];
 
+    public DMSStats() {
+        for (int i = 0; i < 4; i++) {
+            current[i] = new StreamingStats();
+            velocity[i] = new StreamingStats();
+        }
+    }
 
-    public void addDriveCurrent(DriveInfo<Double> driveOutputCurrent) {
-        current.FL = (current.FL + Math.abs(driveOutputCurrent.FL)) / 2.0;
-        current.FR = (current.FR + Math.abs(driveOutputCurrent.FR)) / 2.0;
-        current.RL = (current.RL + Math.abs(driveOutputCurrent.RL)) / 2.0;
-        current.RR = (current.RR + Math.abs(driveOutputCurrent.RR)) / 2.0;
+    public void reset() {
+        for (int i = 0; i < 4; i++) {
+            current[i].reset();
+            velocity[i].reset();
+        }
     }
 
-    public void addDriveVelocity(DriveInfo<Double> driveVelocity) {
-        velocity.FL = (velocity.FL + Math.abs(driveVelocity.FL)) / 2.0;
-        velocity.FR = (velocity.FR + Math.abs(driveVelocity.FR)) / 2.0;
-        velocity.RL = (velocity.RL + Math.abs(driveVelocity.RL)) / 2.0;
-        velocity.RR = (velocity.RR + Math.abs(driveVelocity.RR)) / 2.0;
+    public void addDriveCurrent(DriveValues values) {
+        for (int i = 0; i < 4; i++) {
+            current[i].add(Math.abs(values.get(i)));
+        }
     }
 
-    public static void print(String label, DriveInfo<?> info) {
-        System.out.println(label + 
-            " FR: " + info.FR +
-            " FL: " + info.FL + 
-            " RL: " + info.RL + 
-            " RR: " + info.RR);
+    public void addDriveVelocity(DriveValues values) {
+        for (int i = 0; i < 4; i++) {
+            velocity[i].add(Math.abs(values.get(i)));
+        }
     }
 
-    public static double average(DriveInfo<Double> info) {
-        return (info.FL + info.FR + info.RL + info.RR) / 4.0;
+    public StreamingStats getCurrent(int module) {
+        return current[module];
     }
 
-    public DriveInfo<Integer> calculateStatus() {
-        DriveInfo<Integer> status = new DriveInfo<>(0);
+    public StreamingStats getVelocity(int module) {
+        return velocity[module];
+    }
+
+    public double getCurrentAverage() {
+        return average(current);
+    }
+
+    public double getVelocityAverage() {
+        return average(velocity);
+    }
 
-        double velAvg = DMSStats.average(velocity);
-        double ampAvg = DMSStats.average(current);
-        System.out.println("Vel Avg: " + velAvg + " | Amp Avg: " + ampAvg);
-        status.FL = calc(velocity.FL, velAvg, current.FL, ampAvg);
-        status.FR = calc(velocity.FR, velAvg, current.FR, ampAvg);
-        status.RL = calc(velocity.RL, velAvg, current.RL, ampAvg);
-        status.RR = calc(velocity.RR, velAvg, current.RR, ampAvg);
+    private static double average(StreamingStats[] stats) {
+        return (stats[0].getMean() + stats[1].getMean() + stats[2].getMean() + stats[3].getMean()) / 4.0;
+    }
+
+    public void print(String label) {
+        StringBuilder line = new StringBuilder(label).append(" Vel");
+        for (int i = 0; i < 4; i++) {
+            line.append(' ').append(DriveValues.MODULE_NAMES[i]).append(": ").append(velocity[i].getMean());
+        }
+        line.append(" | Amp");
+        for (int i = 0; i < 4; i++) {
+            line.append(' ').append(DriveValues.MODULE_NAMES[i]).append(": ").append(current[i].getMean());
+        }
+        System.out.println(line);
+        System.out.println("Vel Avg: " + getVelocityAverage() + " | Amp Avg: " + getCurrentAverage());
+    }
+
+    /**
+     * Fills status with each module's DMS status code
+     */
+    public DriveValues calculateStatus(DriveValues status) {
+        double velAvg = getVelocityAverage();
+        double ampAvg = getCurrentAverage();
+        for (int i = 0; i < 4; i++) {
+            status.set(i, calc(velocity[i].getMean(), velAvg, current[i].getMean(), ampAvg));
+        }
         return status;
     }
 
+    /**
+     * Publishes results under DMS/Result/<module>/<mechanism>
+     */
+    public void updateDashboard(String mechanism, DriveValues status) {
+        for (int i = 0; i < 4; i++) {
+            String prefix = "DMS/Result/" + DriveValues.MODULE_NAMES[i] + "/" + mechanism;
+            SmartDashboard.putNumber(prefix + "/Status", status.get(i));
+            SmartDashboard.putNumber(prefix + "/Vel", velocity[i].getMean());
+            SmartDashboard.putNumber(prefix + "/VelStdDev", velocity[i].getStdDev());
+            SmartDashboard.putNumber(prefix + "/VelMin", velocity[i].getMin());
+            SmartDashboard.putNumber(prefix + "/Amp", current[i].getMean());
+            SmartDashboard.putNumber(prefix + "/AmpStdDev", current[i].getStdDev());
+            SmartDashboard.putNumber(prefix + "/AmpMedian", current[i].getQuantile());
+            SmartDashboard.putNumber(prefix + "/AmpMax", current[i].getMax());
+        }
+    }
+
     private int calc(double vel, double velAvg, double amp, double ampAvg) {
         if (amp == 0) {
             return 4;
@@ -0,0 +1,57 @@
+package frc.robot.subsystems.DMS;
+
+/**
+ * One number per swerve module, stored in a plain double array.
+ *
+ * Unlike DriveInfo&lt;Double&gt; it is filled in place, so per-cycle reads of
+ * currents and velocities don't allocate or box.
+ */
+public class DriveValues {
+    public static final int FL = 0;
+    public static final int FR = 1;
+    public static final int RL = 2;
+    public static final int RR = 3;
+    public static final String[] MODULE_NAMES = { "FL", "FR", "RL", "RR" };
+
+    private final double[] values = new double[4];
+
+    public DriveValues() {
+    }
+
+    public DriveValues(double value) {
+        fill(value);
+    }
+
+    public double get(int module) {
+        return values[module];
+    }
+
+    public void set(int module, double value) {
+        values[module] = value;
+    }
+
+    public DriveValues set(double fl, double fr, double rl, double rr) {
+        values[FL] = fl;
+        values[FR] = fr;
+        values[RL] = rl;
+        values[RR] = rr;
+        return this;
+    }
+
+    public DriveValues fill(double value) {
+        values[FL] = value;
+        values[FR] = value;
+        values[RL] = value;
+        values[RR] = value;
+        return this;
+    }
+
+    public double average() {
+        return (values[FL] + values[FR] + values[RL] + values[RR]) / 4.0;
+    }
+
+    @Override
+    public String toString() {
+        return "FL: " + values[FL] + " FR: " + values[FR] + " RL: " + values[RL] + " RR: " + values[RR];
+    }
+}
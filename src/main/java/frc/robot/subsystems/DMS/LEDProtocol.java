@@ -0,0 +1,259 @@
+package frc.robot.subsystems.DMS;
+
+/**
+ * Version 2 of the frame format on the LED controller's serial link.
+ *
+ * <pre>
+ * 0xFE | version | sequence | type | length | payload... | crc | 0xFF
+ * </pre>
+ *
+ * A full frame (type 0) carries every field's value in field order. A delta
+ * frame (type 1) carries (field, value) pairs for fields that changed since
+ * the last frame. The CRC is CRC-8 (polynomial 0x07) over version through the
+ * end of the payload. The sequence number increments with every frame, so the
+ * receiver can tell when it missed one.
+ *
+ * The encoder sends nothing while no field changes, apart from a full frame
+ * every second. After a missed or corrupt frame the receiver ignores deltas
+ * until that next full frame. New fields are appended to Field. A receiver
+ * skips field ids it doesn't know and ignores full frame values past the
+ * ones it knows, so either end can be updated first.
+ *
+ * Controllers still on the original firmware take version 1, a fixed frame of
+ * the fields up to VisionTarget sent in full every time:
+ *
+ * <pre>
+ * 0xFE | DriveFL ... VisionTarget | 0xFF
+ * </pre>
+ */
+public final class LEDProtocol {
+    public static final int VERSION = 2;
+    public static final int START = 0xFE;
+    public static final int END = 0xFF;
+    public static final int TYPE_FULL = 0;
+    public static final int TYPE_DELTA = 1;
+
+    private static final int HEADER_LENGTH = 5;
+    private static final int TRAILER_LENGTH = 2;
+    public static final double KEYFRAME_PERIOD = 1.0;
+    /** Fields carried by a version 1 frame */
+    private static final int V1_FIELD_COUNT = 13;
+    public static final int V1_FRAME_LENGTH = V1_FIELD_COUNT + 2;
+
+    public enum Field {
+        DriveFL, SteerFL, DriveFR, SteerFR, DriveRL, SteerRL, DriveRR, SteerRR,
+        RobotState, Alliance, ShooterReady, ClimbSeconds, VisionTarget,
+        /** Motor anomaly alert mask, least significant byte first */
+        Alerts0, Alerts1, Alerts2, Alerts3
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    public static final int FIELD_COUNT = FIELDS.length;
+    /** Largest possible frame, every field in a delta */
+    public static final int MAX_FRAME_LENGTH = HEADER_LENGTH + 2 * FIELD_COUNT + TRAILER_LENGTH;
+
+    private LEDProtocol() {
+    }
+
+    public static int crc8(byte[] data, int offset, int length) {
+        int crc = 0;
+        for (int i = offset; i < offset + length; i++) {
+            crc ^= data[i] & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = ((crc & 0x80) != 0) ? ((crc << 1) ^ 0x07) : (crc << 1);
+            }
+        }
+        return crc & 0xFF;
+    }
+
+    /**
+     * Tracks field values and turns changes into frames, not thread safe
+     */
+    public static class Encoder {
+        private final int[] values = new int[FIELD_COUNT];
+        private final int[] sent = new int[FIELD_COUNT];
+        private int sequence = 0;
+        private double lastKeyframe = Double.NEGATIVE_INFINITY;
+
+        public void set(Field field, int value) {
+            values[field.ordinal()] = value & 0xFF;
+        }
+
+        /**
+         * Sets the four alert mask fields
+         */
+        public void setAlertMask(int mask) {
+            set(Field.Alerts0, mask);
+            set(Field.Alerts1, mask >>> 8);
+            set(Field.Alerts2, mask >>> 16);
+            set(Field.Alerts3, mask >>> 24);
+        }
+
+        /**
+         * Forces the next frame to be a full frame, e.g. after reconnecting
+         */
+        public void requestKeyframe() {
+            lastKeyframe = Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * Writes a version 1 frame of the current values into out, which must
+         * hold V1_FRAME_LENGTH bytes
+         *
+         * @return frame length
+         */
+        public int encodeV1(byte[] out) {
+            out[0] = (byte) START;
+            for (int i = 0; i < V1_FIELD_COUNT; i++) {
+                out[1 + i] = (byte) values[i];
+            }
+            out[V1_FRAME_LENGTH - 1] = (byte) END;
+            return V1_FRAME_LENGTH;
+        }
+
+        /**
+         * Writes the next frame into out, which must hold MAX_FRAME_LENGTH
+         * bytes. A frame that never reaches the wire takes its changes with
+         * it, follow a dropped frame with requestKeyframe().
+         *
+         * @param now current time in seconds
+         * @return frame length, 0 if there is nothing to send
+         */
+        public int encode(byte[] out, double now) {
+            int changed = 0;
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                if (values[i] != sent[i]) {
+                    changed++;
+                }
+            }
+
+            int type;
+            int length;
+            if (now - lastKeyframe >= KEYFRAME_PERIOD || 2 * changed >= FIELD_COUNT) {
+                type = TYPE_FULL;
+                length = FIELD_COUNT;
+                for (int i = 0; i < FIELD_COUNT; i++) {
+                    out[HEADER_LENGTH + i] = (byte) values[i];
+                }
+                lastKeyframe = now;
+            } else if (changed > 0) {
+                type = TYPE_DELTA;
+                length = 0;
+                for (int i = 0; i < FIELD_COUNT; i++) {
+                    if (values[i] != sent[i]) {
+                        out[HEADER_LENGTH + length++] = (byte) i;
+                        out[HEADER_LENGTH + length++] = (byte) values[i];
+                    }
+                }
+            } else {
+                return 0;
+            }
+            System.arraycopy(values, 0, sent, 0, FIELD_COUNT);
+
+            out[0] = (byte) START;
+            out[1] = (byte) VERSION;
+            out[2] = (byte) sequence;
+            out[3] = (byte) type;
+            out[4] = (byte) length;
+            out[HEADER_LENGTH + length] = (byte) crc8(out, 1, HEADER_LENGTH - 1 + length);
+            out[HEADER_LENGTH + length + 1] = (byte) END;
+            sequence = (sequence + 1) & 0xFF;
+            return HEADER_LENGTH + length + TRAILER_LENGTH;
+        }
+    }
+
+    /**
+     * Receiving end of the protocol, the reference for the LED controller
+     * firmware and a loopback for tests
+     */
+    public static class Decoder {
+        private final int[] values = new int[FIELD_COUNT];
+        private final byte[] frame = new byte[256 + HEADER_LENGTH + TRAILER_LENGTH];
+        private int position = 0;
+        private int expectedSequence = -1;
+        private boolean synced = false;
+        private int framesReceived = 0;
+        private int badFrames = 0;
+        private int missedFrames = 0;
+
+        public void accept(byte[] data, int length) {
+            for (int i = 0; i < length; i++) {
+                accept(data[i]);
+            }
+        }
+
+        public void accept(byte b) {
+            if (position == 0 && (b & 0xFF) != START) {
+                return;  // hunting for the start of a frame
+            }
+            frame[position++] = b;
+            if (position < HEADER_LENGTH) {
+                return;
+            }
+            int payload = frame[4] & 0xFF;
+            if (position < HEADER_LENGTH + payload + TRAILER_LENGTH) {
+                return;
+            }
+            position = 0;
+
+            int crc = crc8(frame, 1, HEADER_LENGTH - 1 + payload);
+            if ((frame[1] & 0xFF) != VERSION || (frame[HEADER_LENGTH + payload] & 0xFF) != crc ||
+                    (frame[HEADER_LENGTH + payload + 1] & 0xFF) != END) {
+                badFrames++;
+                synced = false;
+                return;
+            }
+
+            int sequence = frame[2] & 0xFF;
+            if (expectedSequence >= 0 && sequence != expectedSequence) {
+                missedFrames += (sequence - expectedSequence) & 0xFF;
+                synced = false;
+            }
+            expectedSequence = (sequence + 1) & 0xFF;
+
+            int type = frame[3] & 0xFF;
+            if (type == TYPE_FULL) {
+                for (int i = 0; i < Math.min(payload, FIELD_COUNT); i++) {
+                    values[i] = frame[HEADER_LENGTH + i] & 0xFF;
+                }
+                synced = true;
+            } else if (type == TYPE_DELTA && synced) {
+                for (int i = 0; i + 1 < payload; i += 2) {
+                    int field = frame[HEADER_LENGTH + i] & 0xFF;
+                    if (field < FIELD_COUNT) {
+                        values[field] = frame[HEADER_LENGTH + i + 1] & 0xFF;
+                    }
+                }
+            }
+            framesReceived++;
+        }
+
+        public int get(Field field) {
+            return values[field.ordinal()];
+        }
+
+        public int getAlertMask() {
+            return get(Field.Alerts0) | (get(Field.Alerts1) << 8) | (get(Field.Alerts2) << 16) | (get(Field.Alerts3) << 24);
+        }
+
+        /**
+         * Whether values are current, false from a missed or corrupt frame
+         * until the next full frame
+         */
+        public boolean isSynced() {
+            return synced;
+        }
+
+        public int getFramesReceived() {
+            return framesReceived;
+        }
+
+        public int getBadFrames() {
+            return badFrames;
+        }
+
+        public int getMissedFrames() {
+            return missedFrames;
+        }
+    }
+}
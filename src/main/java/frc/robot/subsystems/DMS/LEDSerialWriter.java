@@ -0,0 +1,90 @@
+package frc.robot.subsystems.DMS;
+
+import edu.wpi.first.wpilibj.SerialPort;
+
+/**
+ * Writes frames to the LED controller's serial port from its own thread.
+ *
+ * The robot thread hands over frames through a single slot mailbox: offering a
+ * frame replaces any frame that has not been sent yet, since only the latest
+ * state matters to the LEDs. The robot thread never touches the port, so a
+ * slow or hung USB serial device can't stall the control loop. If a write
+ * fails the writer stops and reports it through hasFailed().
+ *
+ * All buffers are allocated up front.
+ */
+public class LEDSerialWriter {
+    private final SerialPort serial;
+    private final byte[] pending;
+    private final byte[] sending;
+    private int pendingLength = 0;
+    private boolean hasPending = false;
+    private volatile boolean failed = false;
+    private volatile int framesSent = 0;
+    private volatile int framesDropped = 0;
+
+    public LEDSerialWriter(SerialPort serial, int maxFrameLength) {
+        this.serial = serial;
+        this.pending = new byte[maxFrameLength];
+        this.sending = new byte[maxFrameLength];
+
+        Thread writerThread = new Thread(this::writeLoop, "LEDSerialWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues a frame for sending, replacing any frame still waiting. The
+     * frame is copied, the caller may reuse its buffer right away.
+     *
+     * @return true if an unsent frame was replaced
+     */
+    public synchronized boolean offer(byte[] frame, int length) {
+        boolean replaced = hasPending;
+        if (replaced) {
+            framesDropped++;
+        }
+        System.arraycopy(frame, 0, pending, 0, length);
+        pendingLength = length;
+        hasPending = true;
+        notifyAll();
+        return replaced;
+    }
+
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    public int getFramesSent() {
+        return framesSent;
+    }
+
+    public int getFramesDropped() {
+        return framesDropped;
+    }
+
+    private synchronized int take() throws InterruptedException {
+        while (!hasPending) {
+            wait();
+        }
+        System.arraycopy(pending, 0, sending, 0, pendingLength);
+        hasPending = false;
+        return pendingLength;
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                int length = take();
+                serial.write(sending, length);
+                serial.flush();
+                framesSent++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception | Error e) {
+            System.out.println("LED WRITER FAILED: " + e.getMessage());
+            failed = true;
+        }
+    }
+}
@@ -12,20 +12,32 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Subsystems;
 import frc.robot.subsystems.Lifecycle;
+import frc.robot.subsystems.MotorAnomalyMonitor;
+import frc.robot.subsystems.DMS.LEDProtocol.Field;
+import frc.robot.util.BSPrefs;
 
 public class LEDSubsystem extends SubsystemBase implements Lifecycle {
     private boolean running = true;
     private Timer timer = new Timer();
     private SerialPort serial;
+    private LEDSerialWriter writer;
+
+    private final LEDProtocol.Encoder encoder = new LEDProtocol.Encoder();
+    private final byte[] buffer = new byte[LEDProtocol.MAX_FRAME_LENGTH];
+    /** Frame format the LED controller firmware speaks, 1 until it is reflashed */
+    private final int protocolVersion = BSPrefs.getInstance().getInt("LEDProtocolVersion", 1);
 
     private enum DMSPhase {
         Stopped, RunDriveMotors, RunSteerMotors, DisplayResults
     }
     private DMSPhase currentPhase = DMSPhase.Stopped;
-    private DMSStats driveDmsStatus = new DMSStats();
-    private DMSStats steerDmsStatus = new DMSStats();
-    private DriveInfo<Integer> driveStatus = new DriveInfo<Integer>(0);
-    private DriveInfo<Integer> steerStatus = new DriveInfo<Integer>(0);
+    private final DMSStats driveDmsStatus = new DMSStats();
+    private final DMSStats steerDmsStatus = new DMSStats();
+    private final DriveValues driveStatus = new DriveValues();
+    private final DriveValues steerStatus = new DriveValues();
+    private final DriveValues current = new DriveValues();
+    private final DriveValues velocity = new DriveValues();
+    private final DMSHistory history = new DMSHistory();
 
     private static final double INITIAL_IGNORE_TIME = 1.0;
     private static final double MOTOR_TEST_TIME = 4.0;
@@ -59,6 +71,7 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
         try {
             if (running) {
                 serial = new SerialPort(57600, SerialPort.Port.kUSB1);
+                writer = new LEDSerialWriter(serial, LEDProtocol.MAX_FRAME_LENGTH);
             }
         } catch (Exception e) {
             System.err.println("Unable to create DMS/LED subsystem, problem with serial port: " + e.getMessage());
@@ -73,9 +86,12 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
     public void Report() {
         SmartDashboard.putBoolean("DMS/Running", running);
         SmartDashboard.putBoolean("DMS/HasSerial", (serial != null));
-        if (running && serial != null) {
+        if (writer != null && writer.hasFailed()) {
+            running = false;
+        }
+        if (running && writer != null) {
             try {
-                SendData(new DriveInfo<Double>(0.0), new DriveInfo<Double>(0.0));
+                SendData();
             } catch (Exception e) {
                 // error sending data
                 System.out.println("LED EXCEPTION: " + e.getMessage());
@@ -87,7 +103,12 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
         }
     }
 
-    public void SendData(DriveInfo<Double> driveMotor, DriveInfo<Double> steerMotor) {
+    /**
+     * Encodes the current state and hands it to the writer thread, never blocks
+     * on the serial port. Only changes are sent, see LEDProtocol, unless the
+     * controller still takes version 1 frames.
+     */
+    public void SendData() {
         int robotState = 0;
         if (DriverStation.isDisabled()) {
             robotState = 1;
@@ -103,26 +124,46 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
         } else if (DriverStation.getAlliance() == Alliance.Blue) {
             allianceColor = 2;
         }
-        byte[] buffer = new byte[15];
-
-        buffer[0] = (byte) 254;
-        buffer[1] = driveStatus.FL.byteValue();
-        buffer[2] = steerStatus.FL.byteValue();
-        buffer[3] = driveStatus.FR.byteValue();
-        buffer[4] = steerStatus.FR.byteValue();
-        buffer[5] = driveStatus.RL.byteValue();
-        buffer[6] = steerStatus.RL.byteValue();
-        buffer[7] = driveStatus.RR.byteValue();
-        buffer[8] = steerStatus.RR.byteValue();
-        buffer[9] = (byte) robotState;
-        buffer[10] = (byte) allianceColor;
-        buffer[11] = (byte) (Subsystems.shooterSubsystem.atMinimumSpeed() ? 1 : 0);
-        buffer[12] = (byte) secondsToClimb;
-        buffer[13] = (byte) (Subsystems.turretSubsystem.hasVisionTarget() ? 1 : 0);;
-        buffer[14] = (byte) 255;
-
-        this.serial.write(buffer, buffer.length);
-        this.serial.flush();
+        var driveMonitors = Subsystems.drivetrainSubsystem.getDriveMotorMonitors();
+        var steerMonitors = Subsystems.drivetrainSubsystem.getSteerMotorMonitors();
+        encoder.set(Field.DriveFL, moduleStatus(driveStatus.get(DriveValues.FL), driveMonitors.FL));
+        encoder.set(Field.SteerFL, moduleStatus(steerStatus.get(DriveValues.FL), steerMonitors.FL));
+        encoder.set(Field.DriveFR, moduleStatus(driveStatus.get(DriveValues.FR), driveMonitors.FR));
+        encoder.set(Field.SteerFR, moduleStatus(steerStatus.get(DriveValues.FR), steerMonitors.FR));
+        encoder.set(Field.DriveRL, moduleStatus(driveStatus.get(DriveValues.RL), driveMonitors.RL));
+        encoder.set(Field.SteerRL, moduleStatus(steerStatus.get(DriveValues.RL), steerMonitors.RL));
+        encoder.set(Field.DriveRR, moduleStatus(driveStatus.get(DriveValues.RR), driveMonitors.RR));
+        encoder.set(Field.SteerRR, moduleStatus(steerStatus.get(DriveValues.RR), steerMonitors.RR));
+        encoder.set(Field.RobotState, robotState);
+        encoder.set(Field.Alliance, allianceColor);
+        encoder.set(Field.ShooterReady, Subsystems.shooterSubsystem.atMinimumSpeed() ? 1 : 0);
+        encoder.set(Field.ClimbSeconds, secondsToClimb);
+        encoder.set(Field.VisionTarget, Subsystems.turretSubsystem.hasVisionTarget() ? 1 : 0);
+        encoder.setAlertMask(Subsystems.motorAnomalyMonitor.getAlertMask());
+
+        if (protocolVersion < LEDProtocol.VERSION) {
+            writer.offer(buffer, encoder.encodeV1(buffer));
+            return;
+        }
+
+        final double now = Timer.getFPGATimestamp();
+        int length = encoder.encode(buffer, now);
+        if (length > 0 && writer.offer(buffer, length)) {
+            // The frame we replaced had changes this one assumes were sent
+            encoder.requestKeyframe();
+            writer.offer(buffer, encoder.encode(buffer, now));
+        }
+    }
+
+    /**
+     * DMS result while a test is showing, otherwise flags motors with a
+     * latched in-match alert using the DMS fault code
+     */
+    private int moduleStatus(double dmsStatus, MotorAnomalyMonitor.Motor monitor) {
+        if (currentPhase == DMSPhase.Stopped && monitor != null && Subsystems.motorAnomalyMonitor.hasAlert(monitor)) {
+            return 2;
+        }
+        return (int) dmsStatus;
     }
     
 
@@ -141,15 +182,19 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
     public void startDMS() {
         timer.reset();
         timer.start();
-        driveDmsStatus = new DMSStats();
-        steerDmsStatus = new DMSStats();
+        driveDmsStatus.reset();
+        steerDmsStatus.reset();
 
-        driveStatus = new DriveInfo<Integer>(0);
-        steerStatus = new DriveInfo<Integer>(0);
+        driveStatus.fill(0);
+        steerStatus.fill(0);
 
         currentPhase = DMSPhase.RunDriveMotors;
     }
 
+    public DMSHistory getHistory() {
+        return history;
+    }
+
     public boolean isStopped() {
         return currentPhase == DMSPhase.Stopped;
     }
@@ -158,8 +203,8 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
         System.out.println("Stopping DMS");
         currentPhase = DMSPhase.Stopped;
         
-        driveStatus = new DriveInfo<Integer>(0);
-        steerStatus = new DriveInfo<Integer>(0);
+        driveStatus.fill(0);
+        steerStatus.fill(0);
         timer.stop();
     }
 
@@ -201,32 +246,15 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
             Subsystems.drivetrainSubsystem.DMSSteer(0.0);
 
             if (now > INITIAL_IGNORE_TIME) {
-                driveDmsStatus.addDriveCurrent(Subsystems.drivetrainSubsystem.getDriveOutputCurrent());
-                driveDmsStatus.addDriveVelocity(Subsystems.drivetrainSubsystem.getDriveVelocity());
-
-                DMSStats.print("(DVel)", driveDmsStatus.velocity);
-                DMSStats.print("(DAmp)", driveDmsStatus.current);
-
-                double velAvg = DMSStats.average(driveDmsStatus.velocity);
-                double ampAvg = DMSStats.average(driveDmsStatus.current);
-                System.out.println("Vel Avg: " + velAvg + " | Amp Avg: " + ampAvg);
-                
-                driveStatus = driveDmsStatus.calculateStatus();
-                DMSStats.print("[Drive Status]", driveStatus);
+                driveDmsStatus.addDriveCurrent(Subsystems.drivetrainSubsystem.getDriveOutputCurrent(current));
+                driveDmsStatus.addDriveVelocity(Subsystems.drivetrainSubsystem.getDriveVelocity(velocity));
+                driveDmsStatus.calculateStatus(driveStatus);
             }
         } else {
-            SmartDashboard.putNumber("DMS/Result/FL/Drive/Status", driveStatus.FL);
-            SmartDashboard.putNumber("DMS/Result/FL/Drive/Vel", driveDmsStatus.velocity.FL);
-            SmartDashboard.putNumber("DMS/Result/FL/Drive/Amp", driveDmsStatus.current.FL);
-            SmartDashboard.putNumber("DMS/Result/FR/Drive/Status", driveStatus.FR);
-            SmartDashboard.putNumber("DMS/Result/FR/Drive/Vel", driveDmsStatus.velocity.FR);
-            SmartDashboard.putNumber("DMS/Result/FR/Drive/Amp", driveDmsStatus.current.FR);
-            SmartDashboard.putNumber("DMS/Result/RL/Drive/Status", driveStatus.RL);
-            SmartDashboard.putNumber("DMS/Result/RL/Drive/Vel", driveDmsStatus.velocity.RL);
-            SmartDashboard.putNumber("DMS/Result/RL/Drive/Amp", driveDmsStatus.current.RL);
-            SmartDashboard.putNumber("DMS/Result/RR/Drive/Status", driveStatus.RR);
-            SmartDashboard.putNumber("DMS/Result/RR/Drive/Vel", driveDmsStatus.velocity.RR);
-            SmartDashboard.putNumber("DMS/Result/RR/Drive/Amp", driveDmsStatus.current.RR);
+            driveDmsStatus.print("(Drive)");
+            System.out.println("[Drive Status] " + driveStatus);
+            driveDmsStatus.updateDashboard("Drive", driveStatus);
+            history.record("Drive", driveDmsStatus, driveStatus);
 
             currentPhase = DMSPhase.RunSteerMotors;
             timer.reset();
@@ -240,35 +268,18 @@ public class LEDSubsystem extends SubsystemBase implements Lifecycle {
             Subsystems.drivetrainSubsystem.DMSSteer(1.0);
 
             if (now > INITIAL_IGNORE_TIME) {
-                steerDmsStatus.addDriveCurrent(Subsystems.drivetrainSubsystem.getSteerOutputCurrent());
-                steerDmsStatus.addDriveVelocity(Subsystems.drivetrainSubsystem.getSteerVelocity());
-
-                DMSStats.print("(SVel)", steerDmsStatus.velocity);
-                DMSStats.print("(SAmp)", steerDmsStatus.current);
-
-                double velAvg = DMSStats.average(steerDmsStatus.velocity);
-                double ampAvg = DMSStats.average(steerDmsStatus.current);
-                System.out.println("Vel Avg: " + velAvg + " | Amp Avg: " + ampAvg);
-                
-                steerStatus = steerDmsStatus.calculateStatus();
-                DMSStats.print("[Steer Status]", steerStatus);
+                steerDmsStatus.addDriveCurrent(Subsystems.drivetrainSubsystem.getSteerOutputCurrent(current));
+                steerDmsStatus.addDriveVelocity(Subsystems.drivetrainSubsystem.getSteerVelocity(velocity));
+                steerDmsStatus.calculateStatus(steerStatus);
             } 
         } else {
             Subsystems.drivetrainSubsystem.DMSDrive(0.0);
             Subsystems.drivetrainSubsystem.DMSSteer(0.0);
             currentPhase = DMSPhase.DisplayResults;
-            SmartDashboard.putNumber("DMS/Result/FL/Steer/Status", steerStatus.FL);
-            SmartDashboard.putNumber("DMS/Result/FL/Steer/Vel", steerDmsStatus.velocity.FL);
-            SmartDashboard.putNumber("DMS/Result/FL/Steer/Amp", steerDmsStatus.current.FL);
-            SmartDashboard.putNumber("DMS/Result/FR/Steer/Status", steerStatus.FR);
-            SmartDashboard.putNumber("DMS/Result/FR/Steer/Vel", steerDmsStatus.velocity.FR);
-            SmartDashboard.putNumber("DMS/Result/FR/Steer/Amp", steerDmsStatus.current.FR);
-            SmartDashboard.putNumber("DMS/Result/RL/Steer/Status", steerStatus.RL);
-            SmartDashboard.putNumber("DMS/Result/RL/Steer/Vel", steerDmsStatus.velocity.RL);
-            SmartDashboard.putNumber("DMS/Result/RL/Steer/Amp", steerDmsStatus.current.RL);
-            SmartDashboard.putNumber("DMS/Result/RR/Steer/Status", steerStatus.RR);
-            SmartDashboard.putNumber("DMS/Result/RR/Steer/Vel", steerDmsStatus.velocity.RR);
-            SmartDashboard.putNumber("DMS/Result/RR/Steer/Amp", steerDmsStatus.current.RR);
+            steerDmsStatus.print("(Steer)");
+            System.out.println("[Steer Status] " + steerStatus);
+            steerDmsStatus.updateDashboard("Steer", steerStatus);
+            history.record("Steer", steerDmsStatus, steerStatus);
 
             timer.reset();
         }
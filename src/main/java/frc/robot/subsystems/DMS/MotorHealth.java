@@ -0,0 +1,293 @@
+package frc.robot.subsystems.DMS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.util.BSPrefs;
+import frc.robot.util.StreamingStats;
+
+/**
+ * Scripted health check for one mechanism, the DMS idea applied to anything
+ * with a motor.
+ *
+ * The owning subsystem describes how to drive the mechanism and how to read
+ * it back, then lists the steps of its excitation script: an open loop output
+ * held for a time. During each step the leader's current and velocity are
+ * averaged, and if the mechanism has a follower, the follower's current and
+ * velocity relative to the leader. The first half of each step is left out so
+ * spin-up doesn't drag the averages down.
+ *
+ * Results are compared against baselines recorded from a known good run and
+ * kept in /home/lvuser/dms_baselines.csv. A mechanism without baselines
+ * reports NoBaseline, run it once on a healthy robot and save.
+ */
+public class MotorHealth {
+    /** Measured current may be this far either side of the baseline */
+    private static final double AMP_TOLERANCE = 0.3;
+    /** Measured velocity may be this far either side of the baseline */
+    private static final double VEL_TOLERANCE = 0.15;
+    /** Follower velocity relative to the leader may drift this far from the baseline */
+    private static final double FOLLOWER_VEL_TOLERANCE = 0.1;
+    /** Follower current relative to the leader may drift this far from the baseline */
+    private static final double FOLLOWER_AMP_TOLERANCE = 0.3;
+    /** Below this a leader reading counts as nothing at all */
+    private static final double MIN_READING = 0.5;
+
+    public enum Status {
+        NotRun, Running, Good, Fault, NoBaseline
+    }
+
+    private static class Step {
+        final double output;
+        final double seconds;
+        final StreamingStats current = new StreamingStats();
+        final StreamingStats velocity = new StreamingStats();
+        final StreamingStats followerCurrent = new StreamingStats();
+        final StreamingStats followerVelocity = new StreamingStats();
+
+        Step(double output, double seconds) {
+            this.output = output;
+            this.seconds = seconds;
+        }
+    }
+
+    private final String name;
+    private final Consumer<Boolean> dmsMode;
+    private final DoubleConsumer output;
+    private DoubleSupplier current = () -> 0.0;
+    private DoubleSupplier velocity = () -> 0.0;
+    private DoubleSupplier followerCurrent;
+    private DoubleSupplier followerVelocity;
+    private final List<Step> steps = new ArrayList<>();
+
+    private Status status = Status.NotRun;
+    private String fault = "";
+    private int stepIndex = 0;
+    private double stepStart = 0.0;
+
+    /**
+     * @param name    mechanism name, used for dashboard and baseline keys
+     * @param dmsMode hands motor control to and from the health check
+     * @param output  sets the leader's open loop output while in DMS mode
+     */
+    public MotorHealth(String name, Consumer<Boolean> dmsMode, DoubleConsumer output) {
+        this.name = name;
+        this.dmsMode = dmsMode;
+        this.output = output;
+    }
+
+    /**
+     * Leader readings, current in amps and velocity in the motor's native units
+     */
+    public MotorHealth leader(DoubleSupplier current, DoubleSupplier velocity) {
+        this.current = current;
+        this.velocity = velocity;
+        return this;
+    }
+
+    public MotorHealth follower(DoubleSupplier current, DoubleSupplier velocity) {
+        this.followerCurrent = current;
+        this.followerVelocity = velocity;
+        return this;
+    }
+
+    /**
+     * Appends a step holding the given open loop output
+     */
+    public MotorHealth step(double output, double seconds) {
+        steps.add(new Step(output, seconds));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Description of the first fault found, empty if none
+     */
+    public String getFault() {
+        return fault;
+    }
+
+    public void start() {
+        for (Step step : steps) {
+            step.current.reset();
+            step.velocity.reset();
+            step.followerCurrent.reset();
+            step.followerVelocity.reset();
+        }
+        stepIndex = 0;
+        stepStart = Timer.getFPGATimestamp();
+        status = Status.Running;
+        fault = "";
+        dmsMode.accept(true);
+        System.out.println("[MotorHealth] Starting " + name);
+    }
+
+    /**
+     * Drives the current step and samples it, call every loop
+     *
+     * @return true once every step has run
+     */
+    public boolean run() {
+        if (status != Status.Running) {
+            return true;
+        }
+        final double now = Timer.getFPGATimestamp();
+        Step step = steps.get(stepIndex);
+        double elapsed = now - stepStart;
+
+        if (elapsed >= step.seconds) {
+            stepIndex++;
+            stepStart = now;
+            if (stepIndex >= steps.size()) {
+                finish();
+                return true;
+            }
+            step = steps.get(stepIndex);
+            elapsed = 0.0;
+        }
+
+        output.accept(step.output);
+        if (elapsed > step.seconds / 2) {
+            double leaderVelocity = Math.abs(velocity.getAsDouble());
+            step.current.add(Math.abs(current.getAsDouble()));
+            step.velocity.add(leaderVelocity);
+            if (followerCurrent != null && leaderVelocity > MIN_READING) {
+                step.followerCurrent.add(Math.abs(followerCurrent.getAsDouble()));
+                step.followerVelocity.add(Math.abs(followerVelocity.getAsDouble()) / leaderVelocity);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the mechanism and hands control back, safe to call at any time
+     */
+    public void stop() {
+        output.accept(0.0);
+        dmsMode.accept(false);
+        if (status == Status.Running) {
+            status = Status.NotRun;
+            System.out.println("[MotorHealth] " + name + " stopped before finishing");
+        }
+    }
+
+    private void finish() {
+        output.accept(0.0);
+        dmsMode.accept(false);
+        evaluate(BSPrefs.getDmsBaselineInstance());
+        System.out.println("[MotorHealth] " + name + ": " + status + (fault.isEmpty() ? "" : " - " + fault));
+    }
+
+    private void evaluate(BSPrefs baselines) {
+        status = Status.Good;
+        for (int i = 0; i < steps.size() && status != Status.Fault; i++) {
+            Step step = steps.get(i);
+            double amps = step.current.getMean();
+            double vel = step.velocity.getMean();
+
+            if (amps < MIN_READING) {
+                setFault(i, "no current");
+                break;
+            }
+            if (vel < MIN_READING) {
+                setFault(i, "not moving");
+                break;
+            }
+
+            String key = baselineKey(i);
+            double baseAmps = baselines.getDouble(key + "/Amp", 0.0);
+            double baseVel = baselines.getDouble(key + "/Vel", 0.0);
+            if (baseAmps <= 0 || baseVel <= 0) {
+                status = Status.NoBaseline;
+                continue;
+            }
+            checkRatio(i, "current", amps / baseAmps, AMP_TOLERANCE);
+            checkRatio(i, "velocity", vel / baseVel, VEL_TOLERANCE);
+
+            if (followerCurrent != null && status != Status.Fault) {
+                if (step.followerVelocity.getCount() == 0) {
+                    setFault(i, "no follower samples");
+                    break;
+                }
+                double baseFollowerVel = baselines.getDouble(key + "/FollowerVel", 1.0);
+                double followerVel = step.followerVelocity.getMean();
+                if (Math.abs(followerVel - baseFollowerVel) > FOLLOWER_VEL_TOLERANCE) {
+                    setFault(i, "follower tracking " + format(followerVel) + " of leader, baseline " + format(baseFollowerVel));
+                    break;
+                }
+                double baseFollowerAmps = baselines.getDouble(key + "/FollowerAmp", 0.0);
+                if (baseFollowerAmps > 0) {
+                    checkRatio(i, "follower current", step.followerCurrent.getMean() / baseFollowerAmps, FOLLOWER_AMP_TOLERANCE);
+                }
+            }
+        }
+    }
+
+    private void checkRatio(int stepIndex, String what, double ratio, double tolerance) {
+        if (status != Status.Fault && Math.abs(ratio - 1.0) > tolerance) {
+            setFault(stepIndex, what + " " + format(ratio) + "x baseline");
+        }
+    }
+
+    private void setFault(int stepIndex, String description) {
+        status = Status.Fault;
+        fault = "step " + stepIndex + " " + description;
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private String baselineKey(int stepIndex) {
+        return "DMS/" + name + "/" + stepIndex;
+    }
+
+    /**
+     * Stores the last run's measurements as the baseline, does not write the
+     * file
+     */
+    public void saveBaseline(BSPrefs baselines) {
+        if (status == Status.NotRun || status == Status.Running) {
+            System.out.println("[MotorHealth] " + name + " has not run, no baseline saved");
+            return;
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            String key = baselineKey(i);
+            baselines.setDouble(key + "/Amp", step.current.getMean());
+            baselines.setDouble(key + "/Vel", step.velocity.getMean());
+            if (followerCurrent != null) {
+                baselines.setDouble(key + "/FollowerAmp", step.followerCurrent.getMean());
+                baselines.setDouble(key + "/FollowerVel", step.followerVelocity.getMean());
+            }
+        }
+        evaluate(baselines);
+    }
+
+    public void updateDashboard() {
+        String prefix = "DMS/Health/" + name;
+        SmartDashboard.putString(prefix + "/Status", status.name());
+        SmartDashboard.putString(prefix + "/Fault", fault);
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            SmartDashboard.putNumber(prefix + "/" + i + "/Amp", step.current.getMean());
+            SmartDashboard.putNumber(prefix + "/" + i + "/Vel", step.velocity.getMean());
+            if (followerCurrent != null) {
+                SmartDashboard.putNumber(prefix + "/" + i + "/FollowerAmp", step.followerCurrent.getMean());
+                SmartDashboard.putNumber(prefix + "/" + i + "/FollowerVel", step.followerVelocity.getMean());
+            }
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package frc.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
 import com.ctre.phoenix.motorcontrol.can.TalonFX;
 import com.swervedrivespecialties.swervelib.Mk4SwerveModuleHelper;
 import com.swervedrivespecialties.swervelib.SdsModuleConfigurations;
 import com.swervedrivespecialties.swervelib.SwerveModule;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.math.geometry.Pose2d;
@@ -13,8 +17,9 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInLayouts;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
@@ -23,9 +28,11 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.subsystems.DMS.DriveInfo;
+import frc.robot.subsystems.DMS.DriveValues;
 import frc.robot.subsystems.gyro.BSGyro;
 import frc.robot.subsystems.gyro.PigeonGyro;
 import frc.robot.util.BSPrefs;
+import frc.robot.util.MotorConfigQueue;
 import frc.robot.util.SDSwerveModuleUtil;
 
 import static frc.robot.Constants.*;
@@ -63,6 +70,14 @@ public class DrivetrainSubsystem extends SubsystemBase {
 
     public static final double MAX_ACCELERATION_METERS_PER_SECOND_SQUARED = 2.5;
 
+    /** Drive TalonFX integrated sensor to wheel travel */
+    public static final double DRIVE_METERS_PER_TICK = SdsModuleConfigurations.MK4_L2.getDriveReduction() *
+            SdsModuleConfigurations.MK4_L2.getWheelDiameter() * Math.PI / 2048.0;
+
+    /** Steer TalonFX integrated sensor to module rotation */
+    public static final double STEER_RADIANS_PER_TICK = SdsModuleConfigurations.MK4_L2.getSteerReduction() *
+            2.0 * Math.PI / 2048.0;
+
     /**
      * The maximum angular velocity of the robot in radians per second.
      * <p>
@@ -78,7 +93,10 @@ public class DrivetrainSubsystem extends SubsystemBase {
     public static final double MAX_ANGULAR_ACCELERATION_DEGREES_PER_SECOND_SQUARED = 720.0;
     public static final double MAX_ANGULAR_ACCELERATION_RADIANS_PER_SECOND_SQUARED = Math.toRadians(MAX_ANGULAR_ACCELERATION_DEGREES_PER_SECOND_SQUARED);
 
-    private final SwerveDriveKinematics m_kinematics = new SwerveDriveKinematics(
+    /**
+     * Static so paths can be generated without a robot, see TrajectoryLibrary
+     */
+    public static final Translation2d[] MODULE_LOCATIONS = {
             // Front left
             new Translation2d(DRIVETRAIN_TRACKWIDTH_METERS / 2.0, DRIVETRAIN_WHEELBASE_METERS / 2.0),
             // Front right
@@ -86,7 +104,12 @@ public class DrivetrainSubsystem extends SubsystemBase {
             // Back left
             new Translation2d(-DRIVETRAIN_TRACKWIDTH_METERS / 2.0, DRIVETRAIN_WHEELBASE_METERS / 2.0),
             // Back right
-            new Translation2d(-DRIVETRAIN_TRACKWIDTH_METERS / 2.0, -DRIVETRAIN_WHEELBASE_METERS / 2.0));
+            new Translation2d(-DRIVETRAIN_TRACKWIDTH_METERS / 2.0, -DRIVETRAIN_WHEELBASE_METERS / 2.0)
+    };
+
+    public static final SwerveDriveKinematics KINEMATICS = new SwerveDriveKinematics(MODULE_LOCATIONS);
+
+    private final SwerveDriveKinematics m_kinematics = KINEMATICS;
 
     private final BSGyro m_gyro = new PigeonGyro(Constants.PIGEON_ID);
 
@@ -97,13 +120,32 @@ public class DrivetrainSubsystem extends SubsystemBase {
     private final SwerveModule m_backRightModule;
 
     private final DMSHelper dmsHelper;
+    private final DriveInfo<MotorAnomalyMonitor.Motor> driveMonitors = new DriveInfo<>(null);
+    private final DriveInfo<MotorAnomalyMonitor.Motor> steerMonitors = new DriveInfo<>(null);
     private boolean dmsMode = false;
 
     private ChassisSpeeds m_chassisSpeeds = new ChassisSpeeds(0.0, 0.0, 0.0);
-    private SwerveDriveOdometry m_odometry = new SwerveDriveOdometry(m_kinematics, this.getGyroscopeRotation());
+    private final SwerveOdometryThread m_odometry;
+    private final SwerveSetpointGenerator setpointGenerator;
+    private final ImpactMonitor impactMonitor;
+    private double handledCollisionTime = -1.0;
+    private double lastPeriodicTime = Timer.getFPGATimestamp();
+
+    // Closed loop drive velocity, feedforward defaults reproduce the open loop mapping.
+    // Off until the velocity gains are tuned on the robot.
+    private boolean closedLoopDrive = false;
+    private double driveKS;
+    private double driveKV;
+    private double driveKA;
+    private final TalonFX[] driveMotorArray;
+    private final TalonFX[] steerMotorArray;
+    private final double[] lastTargetSpeeds = new double[4];
+    private double lastStatesTime = Timer.getFPGATimestamp();
     private final Field2d m_field = new Field2d();
 
     private final RotationController rotationController = new RotationController();
+    /** Bumped whenever the gyro's frame changes, headings held from before are stale */
+    private volatile int gyroResetCount = 0;
 
     public DrivetrainSubsystem() {
         ShuffleboardTab tab = Shuffleboard.getTab("Drivetrain");
@@ -165,9 +207,50 @@ public class DrivetrainSubsystem extends SubsystemBase {
                 -Math.toRadians(offsets.getDouble("RROFF", 0.0)));
 
         this.dmsHelper = new DMSHelper();
+        m_odometry = new SwerveOdometryThread(MODULE_LOCATIONS,
+                new SwerveModule[] { m_frontLeftModule, m_frontRightModule, m_backLeftModule, m_backRightModule },
+                new TalonFX[] { dmsHelper.driveMotors.FL, dmsHelper.driveMotors.FR, dmsHelper.driveMotors.RL, dmsHelper.driveMotors.RR },
+                new TalonFX[] { dmsHelper.steerMotors.FL, dmsHelper.steerMotors.FR, dmsHelper.steerMotors.RL, dmsHelper.steerMotors.RR },
+                m_gyro);
+        setpointGenerator = new SwerveSetpointGenerator(m_kinematics, MAX_VELOCITY_METERS_PER_SECOND);
+        impactMonitor = new ImpactMonitor(m_gyro);
+
+        BSPrefs prefs = BSPrefs.getInstance();
+        loadFeedforward(prefs);
+        double driveVelocityP = prefs.getDouble("DriveVelocityP", 0.05);
+        driveMotorArray = new TalonFX[] { dmsHelper.driveMotors.FL, dmsHelper.driveMotors.FR, dmsHelper.driveMotors.RL, dmsHelper.driveMotors.RR };
+        for (TalonFX motor : driveMotorArray) {
+            motor.config_kP(0, driveVelocityP);
+            motor.config_kI(0, 0.0);
+            motor.config_kD(0, 0.0);
+            motor.config_kF(0, 0.0);
+        }
+        steerMotorArray = new TalonFX[] { dmsHelper.steerMotors.FL, dmsHelper.steerMotors.FR, dmsHelper.steerMotors.RL, dmsHelper.steerMotors.RR };
+        prefs.addReloadListener(this::reloadPrefs);
+        SmartDashboard.putBoolean("Drivetrain/ClosedLoopVelocity", closedLoopDrive);
         storeContantsInNT();
     }
 
+    private void loadFeedforward(BSPrefs prefs) {
+        driveKS = prefs.getDouble("DriveKS", 0.0);
+        driveKV = prefs.getDouble("DriveKV", MAX_VOLTAGE / MAX_VELOCITY_METERS_PER_SECOND);
+        driveKA = prefs.getDouble("DriveKA", 0.0);
+    }
+
+    /**
+     * Applies retuned drive gains when bsprefs.csv changes
+     */
+    private void reloadPrefs() {
+        BSPrefs prefs = BSPrefs.getInstance();
+        loadFeedforward(prefs);
+        double driveVelocityP = prefs.getDouble("DriveVelocityP", 0.05);
+        for (int i = 0; i < driveMotorArray.length; i++) {
+            TalonFX motor = driveMotorArray[i];
+            MotorConfigQueue.getInstance().enqueueCtre("Drive/" + DriveValues.MODULE_NAMES[i] + "/P",
+                () -> motor.config_kP(0, driveVelocityP));
+        }
+    }
+
     /**
      * Stores drivetrain constants in network tables for review
      */
@@ -192,6 +275,17 @@ public class DrivetrainSubsystem extends SubsystemBase {
         this.dmsMode = mode;
     }
 
+    /**
+     * Supply current limit of each drive motor, set by the PowerManager
+     */
+    public void setDriveCurrentLimit(double amps) {
+        for (int i = 0; i < driveMotorArray.length; i++) {
+            TalonFX motor = driveMotorArray[i];
+            MotorConfigQueue.getInstance().enqueueCtre("Drive/" + DriveValues.MODULE_NAMES[i] + "/SupplyLimit",
+                () -> motor.configSupplyCurrentLimit(new SupplyCurrentLimitConfiguration(true, amps, amps, 0.1)));
+        }
+    }
+
     /**
      * Sets the gyroscope angle to zero. This can be used to set the direction the
      * robot is currently facing to the
@@ -200,6 +294,7 @@ public class DrivetrainSubsystem extends SubsystemBase {
     public void zeroGyroscope() {
         m_gyro.setGyroOffset(0.0);
         m_gyro.zeroGyroscope();
+        gyroResetCount++;
         resetOdometry(this.getPose(), new Rotation2d());
         
     }
@@ -214,15 +309,76 @@ public class DrivetrainSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        final double now = Timer.getFPGATimestamp();
+        final double dt = MathUtil.clamp(now - lastPeriodicTime, 0.005, 0.1);
+        lastPeriodicTime = now;
+
+        m_field.setRobotPose(getPose());
+        int slipping = m_odometry.getSlippingModules();
+        SmartDashboard.putBoolean("Drivetrain/Slip/FL", (slipping & 1) != 0);
+        SmartDashboard.putBoolean("Drivetrain/Slip/FR", (slipping & 2) != 0);
+        SmartDashboard.putBoolean("Drivetrain/Slip/RL", (slipping & 4) != 0);
+        SmartDashboard.putBoolean("Drivetrain/Slip/RR", (slipping & 8) != 0);
+        SmartDashboard.putNumber("Drivetrain/Slip/Events", m_odometry.getSlipEventCount());
+
+        // Anti-tip, and a hit can shove the robot without the wheels turning
+        setpointGenerator.setAccelerationScale(impactMonitor.getAccelerationScale());
+        double collisionTime = impactMonitor.getLastCollisionTime();
+        if (collisionTime > handledCollisionTime) {
+            handledCollisionTime = collisionTime;
+            m_odometry.markUncertain();
+        }
+        SmartDashboard.putBoolean("Drivetrain/OdometryUncertain", m_odometry.isPoseUncertain());
+        impactMonitor.updateDashboard();
+        m_gyro.updateDashboard();
+        double[] steerAngles = getSteerAngles();
+        if (DriverStation.isDisabled() || dmsMode) {
+            setpointGenerator.reset(getMeasuredChassisSpeeds(), steerAngles);
+        }
         if (!dmsMode) {
-            SwerveModuleState[] states = m_kinematics.toSwerveModuleStates(m_chassisSpeeds);
+            SwerveModuleState[] states = setpointGenerator.generate(m_chassisSpeeds, steerAngles, dt);
             setSwerveModuleStates(states);
         }
     }
 
+    private double[] getSteerAngles() {
+        return new double[] {
+            m_frontLeftModule.getSteerAngle(),
+            m_frontRightModule.getSteerAngle(),
+            m_backLeftModule.getSteerAngle(),
+            m_backRightModule.getSteerAngle()
+        };
+    }
+
+    public ImpactMonitor getImpactMonitor() {
+        return impactMonitor;
+    }
+
+    public SwerveSetpointGenerator getSetpointGenerator() {
+        return setpointGenerator;
+    }
+
+    /**
+     * Chooses between TalonFX closed loop velocity and the open loop voltage
+     * mapping for the drive motors
+     */
+    public void setClosedLoopDrive(boolean closedLoop) {
+        this.closedLoopDrive = closedLoop;
+        SmartDashboard.putBoolean("Drivetrain/ClosedLoopVelocity", closedLoop);
+    }
+
+    public boolean isClosedLoopDrive() {
+        return closedLoopDrive;
+    }
+
     public void setSwerveModuleStates(SwerveModuleState[] states) {
         SwerveDriveKinematics.desaturateWheelSpeeds(states, MAX_VELOCITY_METERS_PER_SECOND);
 
+        if (closedLoopDrive) {
+            setClosedLoopModuleStates(states);
+            return;
+        }
+
         m_frontLeftModule.set(states[0].speedMetersPerSecond / MAX_VELOCITY_METERS_PER_SECOND * MAX_VOLTAGE,
                 states[0].angle.getRadians());
         m_frontRightModule.set(states[1].speedMetersPerSecond / MAX_VELOCITY_METERS_PER_SECOND * MAX_VOLTAGE,
@@ -231,13 +387,64 @@ public class DrivetrainSubsystem extends SubsystemBase {
                 states[2].angle.getRadians());
         m_backRightModule.set(states[3].speedMetersPerSecond / MAX_VELOCITY_METERS_PER_SECOND * MAX_VOLTAGE,
                 states[3].angle.getRadians());
+    }
 
-        Pose2d newPose = m_odometry.update(this.getGyroscopeRotation(), states);
-        m_field.setRobotPose(newPose); // odomotry.getPoseMeters
+    /**
+     * Velocity is held by the TalonFX's 1 kHz loop with our feedforward as the
+     * arbitrary term, so the PID only corrects what the model gets wrong.
+     * Steering goes straight to the steer motors' position loops that SDS
+     * configured, going through the module would also command the drive motor
+     * and let SDS flip a module near 90 degrees without flipping our velocity.
+     */
+    private void setClosedLoopModuleStates(SwerveModuleState[] states) {
+        final double now = Timer.getFPGATimestamp();
+        final double dt = MathUtil.clamp(now - lastStatesTime, 0.005, 0.1);
+        lastStatesTime = now;
+
+        for (int i = 0; i < 4; i++) {
+            double steerPosition = steerMotorArray[i].getSelectedSensorPosition() * STEER_RADIANS_PER_TICK;
+            SwerveModuleState state = SwerveModuleState.optimize(states[i], new Rotation2d(steerPosition));
+            double speed = state.speedMetersPerSecond;
+            double accel = (speed - lastTargetSpeeds[i]) / dt;
+            lastTargetSpeeds[i] = speed;
+
+            double feedforward = driveKS * Math.signum(speed) + driveKV * speed + driveKA * accel;
+            steerMotorArray[i].set(ControlMode.Position,
+                    nearestEquivalentAngle(state.angle.getRadians(), steerPosition) / STEER_RADIANS_PER_TICK);
+            driveMotorArray[i].set(ControlMode.Velocity, speed / DRIVE_METERS_PER_TICK / 10.0,
+                    DemandType.ArbitraryFeedForward, feedforward / MAX_VOLTAGE);
+        }
     }
 
+    /**
+     * The steer sensor counts whole turns, so the target is the angle's
+     * equivalent closest to where the module is now. Optimizing already put
+     * it within 90 degrees, this never turns a module the long way.
+     */
+    private static double nearestEquivalentAngle(double angle, double current) {
+        return current + MathUtil.angleModulus(angle - current);
+    }
+
+    /**
+     * Latest pose from the odometry thread, does not block
+     */
     public Pose2d getPose() {
-        return m_odometry.getPoseMeters();
+        return m_odometry.getPose();
+    }
+
+    public SwerveOdometryThread getOdometry() {
+        return m_odometry;
+    }
+
+    /**
+     * Robot relative chassis speeds from the measured module velocities and angles
+     */
+    public ChassisSpeeds getMeasuredChassisSpeeds() {
+        return m_kinematics.toChassisSpeeds(
+            new SwerveModuleState(m_frontLeftModule.getDriveVelocity(), new Rotation2d(m_frontLeftModule.getSteerAngle())),
+            new SwerveModuleState(m_frontRightModule.getDriveVelocity(), new Rotation2d(m_frontRightModule.getSteerAngle())),
+            new SwerveModuleState(m_backLeftModule.getDriveVelocity(), new Rotation2d(m_backLeftModule.getSteerAngle())),
+            new SwerveModuleState(m_backRightModule.getDriveVelocity(), new Rotation2d(m_backRightModule.getSteerAngle())));
     }
 
     /**
@@ -256,7 +463,7 @@ public class DrivetrainSubsystem extends SubsystemBase {
      * @param rotation
      */
     public void resetOdometry(Pose2d pose, Rotation2d rotation) {
-        m_odometry.resetPosition(pose, rotation);
+        m_odometry.resetPose(pose, rotation);
     }
 
     public RotationController getRotationController() {
@@ -278,6 +485,14 @@ public class DrivetrainSubsystem extends SubsystemBase {
 
     public void setGyroOffset(double offsetAngleDegrees) {
         m_gyro.setGyroOffset(offsetAngleDegrees);
+        gyroResetCount++;
+    }
+
+    /**
+     * Changes every time the gyro is zeroed or offset
+     */
+    public int getGyroResetCount() {
+        return gyroResetCount;
     }
 
 
@@ -295,38 +510,131 @@ public class DrivetrainSubsystem extends SubsystemBase {
         dmsHelper.steerMotors.RR.set(ControlMode.PercentOutput, speed);
     }
 
-    public DriveInfo<Double> getDriveOutputCurrent() {
-        return new DriveInfo<Double>(
+    /**
+     * Drives every module at the given voltage with the wheels held straight
+     * ahead. DMS mode must be on so periodic does not overwrite it.
+     */
+    public void characterizeDrive(double volts) {
+        m_frontLeftModule.set(volts, 0.0);
+        m_frontRightModule.set(volts, 0.0);
+        m_backLeftModule.set(volts, 0.0);
+        m_backRightModule.set(volts, 0.0);
+    }
+
+    /**
+     * Spins every steer motor at the given voltage with the drive motors off.
+     * DMS mode must be on so periodic does not overwrite it.
+     */
+    public void characterizeSteer(double volts) {
+        DMSDrive(0.0);
+        DMSSteer(volts / MAX_VOLTAGE);
+    }
+
+    public DriveInfo<TalonFX> getDriveMotors() {
+        return dmsHelper.driveMotors;
+    }
+
+    public DriveInfo<TalonFX> getSteerMotors() {
+        return dmsHelper.steerMotors;
+    }
+
+    /**
+     * DMS readings, filled into out to avoid allocating every cycle
+     */
+    public DriveValues getDriveOutputCurrent(DriveValues out) {
+        return out.set(
             dmsHelper.driveMotors.FL.getStatorCurrent(),
             dmsHelper.driveMotors.FR.getStatorCurrent(),
             dmsHelper.driveMotors.RL.getStatorCurrent(),
             dmsHelper.driveMotors.RR.getStatorCurrent());
     }
 
-    public DriveInfo<Double> getDriveVelocity() {
-        return new DriveInfo<Double>(
+    public DriveValues getDriveVelocity(DriveValues out) {
+        return out.set(
             dmsHelper.driveMotors.FL.getSelectedSensorVelocity(),
             dmsHelper.driveMotors.FR.getSelectedSensorVelocity(),
             dmsHelper.driveMotors.RL.getSelectedSensorVelocity(),
             dmsHelper.driveMotors.RR.getSelectedSensorVelocity());
     }
 
-    public DriveInfo<Double> getSteerOutputCurrent() {
-        return new DriveInfo<Double>(
+    public DriveValues getSteerOutputCurrent(DriveValues out) {
+        return out.set(
             dmsHelper.steerMotors.FL.getStatorCurrent(),
             dmsHelper.steerMotors.FR.getStatorCurrent(),
             dmsHelper.steerMotors.RL.getStatorCurrent(),
             dmsHelper.steerMotors.RR.getStatorCurrent());
     }
 
-    public DriveInfo<Double> getSteerVelocity() {
-        return new DriveInfo<Double>(
+    public DriveValues getSteerVelocity(DriveValues out) {
+        return out.set(
             dmsHelper.steerMotors.FL.getSelectedSensorVelocity(),
             dmsHelper.steerMotors.FR.getSelectedSensorVelocity(),
             dmsHelper.steerMotors.RL.getSelectedSensorVelocity(),
             dmsHelper.steerMotors.RR.getSelectedSensorVelocity());
     }
 
+    /**
+     * Drive motors only count as stalled after a long shove, pushing matches
+     * are normal play
+     */
+    public void addMotorMonitors(MotorAnomalyMonitor monitor) {
+        driveMonitors.FL = addDriveMonitor(monitor, "DriveFL", dmsHelper.driveMotors.FL);
+        driveMonitors.FR = addDriveMonitor(monitor, "DriveFR", dmsHelper.driveMotors.FR);
+        driveMonitors.RL = addDriveMonitor(monitor, "DriveRL", dmsHelper.driveMotors.RL);
+        driveMonitors.RR = addDriveMonitor(monitor, "DriveRR", dmsHelper.driveMotors.RR);
+        steerMonitors.FL = addSteerMonitor(monitor, "SteerFL", dmsHelper.steerMotors.FL);
+        steerMonitors.FR = addSteerMonitor(monitor, "SteerFR", dmsHelper.steerMotors.FR);
+        steerMonitors.RL = addSteerMonitor(monitor, "SteerRL", dmsHelper.steerMotors.RL);
+        steerMonitors.RR = addSteerMonitor(monitor, "SteerRR", dmsHelper.steerMotors.RR);
+    }
+
+    private static MotorAnomalyMonitor.Motor addDriveMonitor(MotorAnomalyMonitor monitor, String name, TalonFX motor) {
+        return monitor.add(name, motor::getStatorCurrent, motor::getSelectedSensorVelocity, motor::getTemperature)
+            .stall(80, 200, 3.0);
+    }
+
+    private static MotorAnomalyMonitor.Motor addSteerMonitor(MotorAnomalyMonitor monitor, String name, TalonFX motor) {
+        return monitor.add(name, motor::getStatorCurrent, motor::getSelectedSensorVelocity, motor::getTemperature)
+            .stall(40, 100, 1.5);
+    }
+
+    /**
+     * Feedback frames belong to the odometry thread. The integrated sensor
+     * is the only feedback device and nothing reads the closed loop
+     * telemetry, so those frames go as slow as they can.
+     */
+    public void addCANFrames(CANBandwidthManager manager) {
+        for (int i = 0; i < 4; i++) {
+            addTalonFrames(manager, "Drive/" + DriveValues.MODULE_NAMES[i], driveMotorArray[i]);
+        }
+        addTalonFrames(manager, "Steer/FL", dmsHelper.steerMotors.FL);
+        addTalonFrames(manager, "Steer/FR", dmsHelper.steerMotors.FR);
+        addTalonFrames(manager, "Steer/RL", dmsHelper.steerMotors.RL);
+        addTalonFrames(manager, "Steer/RR", dmsHelper.steerMotors.RR);
+        // CANCoders and the gyro's orientation frame
+        manager.other(4, 10);
+        manager.other(1, SwerveOdometryThread.FEEDBACK_FRAME_PERIOD_MS);
+    }
+
+    private static void addTalonFrames(CANBandwidthManager manager, String name, TalonFX motor) {
+        manager.talon(name, motor)
+            .preset(StatusFrameEnhanced.Status_2_Feedback0, SwerveOdometryThread.FEEDBACK_FRAME_PERIOD_MS)
+            .frame(StatusFrameEnhanced.Status_3_Quadrature, 255)
+            .frame(StatusFrameEnhanced.Status_8_PulseWidth, 255)
+            .frame(StatusFrameEnhanced.Status_10_Targets, 255)
+            .frame(StatusFrameEnhanced.Status_12_Feedback1, 255)
+            .frame(StatusFrameEnhanced.Status_13_Base_PIDF0, 255)
+            .frame(StatusFrameEnhanced.Status_14_Turn_PIDF1, 255);
+    }
+
+    public DriveInfo<MotorAnomalyMonitor.Motor> getDriveMotorMonitors() {
+        return driveMonitors;
+    }
+
+    public DriveInfo<MotorAnomalyMonitor.Motor> getSteerMotorMonitors() {
+        return steerMonitors;
+    }
+
     class DMSHelper {
         DriveInfo<TalonFX> driveMotors = new DriveInfo<TalonFX>(null);
         DriveInfo<TalonFX> steerMotors = new DriveInfo<TalonFX>(null);
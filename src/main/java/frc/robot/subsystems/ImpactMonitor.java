@@ -0,0 +1,148 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.subsystems.gyro.BSGyro;
+import frc.robot.util.CsvLog;
+
+/**
+ * Watches the gyro's accelerometer and tilt at 100 Hz for collisions and
+ * tipping.
+ *
+ * A collision shows up as a jump in horizontal acceleration between two
+ * samples, far sharper than anything the drivetrain can produce. Tilt is
+ * measured from the level attitude captured while disabled so a crooked
+ * Pigeon mount doesn't read as tipping.
+ *
+ * The drivetrain polls the results: the allowed drive acceleration is scaled
+ * down as tilt grows, and a collision marks odometry as uncertain. Every event
+ * is logged to /home/lvuser/impacts.csv.
+ */
+public class ImpactMonitor {
+    private static final double PERIOD_SECONDS = 0.01;
+    private static final int ACCEL_FRAME_PERIOD_MS = 10;
+
+    /** Horizontal acceleration change in one sample that counts as a hit */
+    private static final double COLLISION_JERK = 0.6;  // g per sample
+    /** Tilt where acceleration starts to be limited, and where it is fully limited */
+    private static final double TILT_WARNING = 5.0;    // degrees
+    private static final double TILT_LIMIT = 15.0;     // degrees
+    private static final double MIN_ACCELERATION_SCALE = 0.3;
+    /** Events closer together than this are one event */
+    private static final double EVENT_HOLDOFF = 0.5;
+    private static final double LEVEL_FILTER_GAIN = 0.05;
+
+    public enum Event {
+        Collision, Tipping
+    }
+
+    private final BSGyro gyro;
+    private final Notifier notifier;
+    private final CsvLog log = new CsvLog("/home/lvuser/impacts.csv",
+        "type", "fpgaTime", "matchTime", "pitch", "roll", "accelX", "accelY", "accelZ", "jerk");
+
+    private final double[] accel = new double[3];
+    private double lastX = 0.0;
+    private double lastY = 0.0;
+    private boolean haveLast = false;
+    private double levelPitch = 0.0;
+    private double levelRoll = 0.0;
+    private double lastCollision = 0.0;
+    private double lastTip = 0.0;
+
+    // Read by the drivetrain
+    private volatile double accelerationScale = 1.0;
+    private volatile double tilt = 0.0;
+    private volatile double lastCollisionTime = -1.0;
+    private volatile int collisionCount = 0;
+    private volatile int tipCount = 0;
+
+    public ImpactMonitor(BSGyro gyro) {
+        this.gyro = gyro;
+        gyro.setAccelerometerPeriodMs(ACCEL_FRAME_PERIOD_MS);
+        levelPitch = gyro.getPitch();
+        levelRoll = gyro.getRoll();
+
+        notifier = new Notifier(this::sample);
+        notifier.setName("ImpactMonitor");
+        notifier.startPeriodic(PERIOD_SECONDS);
+    }
+
+    private void sample() {
+        final double now = Timer.getFPGATimestamp();
+        double pitch = gyro.getPitch();
+        double roll = gyro.getRoll();
+
+        // The robot sits level while disabled, keep refining what level reads as
+        if (DriverStation.isDisabled()) {
+            levelPitch += LEVEL_FILTER_GAIN * (pitch - levelPitch);
+            levelRoll += LEVEL_FILTER_GAIN * (roll - levelRoll);
+        }
+        double tiltNow = Math.hypot(pitch - levelPitch, roll - levelRoll);
+        tilt = tiltNow;
+        accelerationScale = scaleForTilt(tiltNow);
+
+        if (tiltNow > TILT_LIMIT && now - lastTip > EVENT_HOLDOFF) {
+            lastTip = now;
+            tipCount++;
+            record(Event.Tipping, now, pitch, roll, 0.0);
+        }
+
+        if (!gyro.getAcceleration(accel)) {
+            haveLast = false;
+            return;
+        }
+        double jerk = haveLast ? Math.hypot(accel[0] - lastX, accel[1] - lastY) : 0.0;
+        lastX = accel[0];
+        lastY = accel[1];
+        haveLast = true;
+
+        if (jerk > COLLISION_JERK && now - lastCollision > EVENT_HOLDOFF) {
+            lastCollision = now;
+            lastCollisionTime = now;
+            collisionCount++;
+            record(Event.Collision, now, pitch, roll, jerk);
+        }
+    }
+
+    private static double scaleForTilt(double tilt) {
+        if (tilt <= TILT_WARNING) {
+            return 1.0;
+        }
+        double fraction = Math.min(1.0, (tilt - TILT_WARNING) / (TILT_LIMIT - TILT_WARNING));
+        return 1.0 - fraction * (1.0 - MIN_ACCELERATION_SCALE);
+    }
+
+    private void record(Event event, double now, double pitch, double roll, double jerk) {
+        log.log(event, now, DriverStation.getMatchTime(), pitch, roll, accel[0], accel[1], accel[2], jerk);
+        System.out.println("!!! " + event + " detected, tilt " + String.format("%.1f", tilt) +
+            " jerk " + String.format("%.2f", jerk) + " !!!");
+    }
+
+    /**
+     * Drive acceleration scale for the current tilt, 1.0 when level
+     */
+    public double getAccelerationScale() {
+        return accelerationScale;
+    }
+
+    public double getTilt() {
+        return tilt;
+    }
+
+    /**
+     * FPGA time of the last collision, negative if there hasn't been one
+     */
+    public double getLastCollisionTime() {
+        return lastCollisionTime;
+    }
+
+    public void updateDashboard() {
+        SmartDashboard.putNumber("Impact/Tilt", tilt);
+        SmartDashboard.putNumber("Impact/AccelerationScale", accelerationScale);
+        SmartDashboard.putNumber("Impact/Collisions", collisionCount);
+        SmartDashboard.putNumber("Impact/TipEvents", tipCount);
+    }
+}
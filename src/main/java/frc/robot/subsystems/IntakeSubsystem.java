@@ -10,11 +10,14 @@ import edu.wpi.first.wpilibj.DoubleSolenoid.Value;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.subsystems.DMS.MotorHealth;
+import frc.robot.subsystems.CANBandwidthManager.Mode;
 
 public class IntakeSubsystem extends SubsystemBase implements Lifecycle {
 
   private boolean enabled = false;
   private boolean reversed = false;
+  private boolean dmsMode = false;
 
   private final CANSparkMax intakeMotor = new CANSparkMax(Constants.INTAKE_MOTOR_ID, MotorType.kBrushless);
   private final double DEFAULT_INTAKE_SPEED = -.7;
@@ -24,9 +27,6 @@ public class IntakeSubsystem extends SubsystemBase implements Lifecycle {
   
   public IntakeSubsystem() {
 
-    intakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 500);
-    intakeMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 500);
-
     RaiseIntake();
     SmartDashboard.setDefaultNumber(INTAKE_SPEED_KEY, DEFAULT_INTAKE_SPEED);
   }
@@ -53,6 +53,10 @@ public class IntakeSubsystem extends SubsystemBase implements Lifecycle {
     this.reversed = false;
   }
 
+  public boolean isEjecting() {
+    return this.enabled && this.reversed;
+  }
+
   public void DropIntake() {
     intakeLift.set(Value.kForward);
   }
@@ -61,8 +65,39 @@ public class IntakeSubsystem extends SubsystemBase implements Lifecycle {
     intakeLift.set(Value.kReverse);
   }
 
+  /**
+   * Hands the intake motor to a health check
+   */
+  public void setDmsMode(boolean mode) {
+    this.dmsMode = mode;
+  }
+
+  /**
+   * Nothing reads the intake's encoder outside of health checks
+   */
+  public void addCANFrames(CANBandwidthManager manager) {
+    manager.spark("Intake", intakeMotor)
+      .frame(PeriodicFrame.kStatus1, 500, 20, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 500);
+  }
+
+  public void addMotorMonitors(MotorAnomalyMonitor monitor) {
+    monitor.add("Intake", intakeMotor::getOutputCurrent, () -> intakeMotor.getEncoder().getVelocity(), intakeMotor::getMotorTemperature)
+      .stall(30, 100, 1.0);
+  }
+
+  public MotorHealth createMotorHealth() {
+    return new MotorHealth("Intake", this::setDmsMode, intakeMotor::set)
+      .leader(intakeMotor::getOutputCurrent, () -> intakeMotor.getEncoder().getVelocity())
+      .step(DEFAULT_INTAKE_SPEED / 2, 1.5)
+      .step(DEFAULT_INTAKE_SPEED, 1.5);
+  }
+
   @Override
   public void periodic() {
+    if (dmsMode) {
+      return;
+    }
     double intakeSpeed = 0.0;
     if (enabled) {
       intakeSpeed = SmartDashboard.getNumber(INTAKE_SPEED_KEY, DEFAULT_INTAKE_SPEED);
@@ -0,0 +1,258 @@
+package frc.robot.subsystems;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Watches every motor during normal operation for signs of damage, DMS only
+ * runs in the pits.
+ *
+ * Runs at 10 Hz on its own thread and only reads values the controllers
+ * already broadcast in their status frames, so it adds no CAN traffic. Three
+ * things are checked:
+ * <ul>
+ * <li>Stall: current stays high while the motor barely turns</li>
+ * <li>Temperature: the motor is hot, or heating fast enough that it will be
+ * within a minute</li>
+ * <li>Follower divergence: a follower's speed drifts from its leader's, a
+ * cooked motor or a slipping belt. Only checked while both speeds arrive in
+ * fast frames, a speed that is half a second old disagrees with its leader
+ * on every spin-up and coast-down.</li>
+ * </ul>
+ *
+ * Alerts latch until cleared from the dashboard, a fault seen once in a
+ * match is still on the dashboard when the robot comes back to the pits.
+ */
+public class MotorAnomalyMonitor {
+    private static final double PERIOD_SECONDS = 0.1;
+
+    private static final double TEMP_LIMIT = 80.0;          // C
+    /** Below this the temperature trend is not checked */
+    private static final double TEMP_TREND_MIN = 55.0;      // C
+    private static final double TEMP_PROJECTION = 60.0;     // seconds ahead
+    private static final double TEMP_SAMPLE_PERIOD = 1.0;
+    private static final double TEMP_SLOPE_GAIN = 0.2;
+
+    private static final double FOLLOWER_TOLERANCE = 0.15;
+    private static final double FOLLOWER_TIME = 1.0;
+    /** Slowest velocity frame the follower check trusts */
+    private static final int FOLLOWER_MAX_FRAME_MS = 50;
+
+    public enum Alert {
+        Stall, Temperature, Follower
+    }
+
+    /**
+     * One monitored motor, readings come from its controller's cached status
+     * frames
+     */
+    public static class Motor {
+        private final String name;
+        private final int index;
+        private final DoubleSupplier current;
+        private final DoubleSupplier velocity;
+        private final DoubleSupplier temperature;
+
+        private double stallCurrent = Double.POSITIVE_INFINITY;
+        private double stallVelocity = 0.0;
+        private double stallTime = 1.0;
+        private Motor leader;
+        private double minFollowVelocity = 0.0;
+        private IntSupplier velocityFramePeriod = null;
+
+        private double stallStart = -1.0;
+        private double divergeStart = -1.0;
+        private double lastTemp = Double.NaN;
+        private double lastTempTime = 0.0;
+        private double tempSlope = 0.0;
+        private volatile int alerts = 0;
+
+        private Motor(String name, int index, DoubleSupplier current, DoubleSupplier velocity, DoubleSupplier temperature) {
+            this.name = name;
+            this.index = index;
+            this.current = current;
+            this.velocity = velocity;
+            this.temperature = temperature;
+        }
+
+        /**
+         * Flags a stall when current stays above the given amps while speed
+         * stays below the given velocity, in the motor's native units
+         */
+        public Motor stall(double amps, double velocity, double seconds) {
+            this.stallCurrent = amps;
+            this.stallVelocity = velocity;
+            this.stallTime = seconds;
+            return this;
+        }
+
+        /**
+         * Compares this motor's speed against its leader's whenever the
+         * leader turns faster than minVelocity. Direction is ignored, followers
+         * are often inverted.
+         */
+        public Motor follows(Motor leader, double minVelocity) {
+            this.leader = leader;
+            this.minFollowVelocity = minVelocity;
+            return this;
+        }
+
+        /**
+         * Period of the status frame carrying this motor's velocity, in ms.
+         * Without one the velocity is taken as always fresh.
+         */
+        public Motor velocityFrame(IntSupplier periodMs) {
+            this.velocityFramePeriod = periodMs;
+            return this;
+        }
+
+        private boolean hasFreshVelocity() {
+            if (velocityFramePeriod == null) {
+                return true;
+            }
+            int period = velocityFramePeriod.getAsInt();
+            return period > 0 && period <= FOLLOWER_MAX_FRAME_MS;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean hasAlert(Alert alert) {
+            return (alerts & (1 << alert.ordinal())) != 0;
+        }
+    }
+
+    private final List<Motor> motors = new ArrayList<>();
+    private Notifier notifier;
+    private volatile int alertMask = 0;
+    private volatile int alertCount = 0;
+
+    /**
+     * Registers a motor, must be called before start()
+     */
+    public Motor add(String name, DoubleSupplier current, DoubleSupplier velocity, DoubleSupplier temperature) {
+        if (notifier != null) {
+            throw new IllegalStateException("Cannot add motors after the monitor has started: " + name);
+        }
+        if (motors.size() >= 32) {
+            throw new IllegalStateException("Too many motors for the alert mask: " + name);
+        }
+        Motor motor = new Motor(name, motors.size(), current, velocity, temperature);
+        motors.add(motor);
+        return motor;
+    }
+
+    public void start() {
+        notifier = new Notifier(this::sample);
+        notifier.setName("MotorAnomalyMonitor");
+        notifier.startPeriodic(PERIOD_SECONDS);
+    }
+
+    private void sample() {
+        final double now = Timer.getFPGATimestamp();
+        for (int i = 0; i < motors.size(); i++) {
+            Motor motor = motors.get(i);
+            double amps = Math.abs(motor.current.getAsDouble());
+            double speed = Math.abs(motor.velocity.getAsDouble());
+
+            // Stall
+            if (amps > motor.stallCurrent && speed < motor.stallVelocity) {
+                if (motor.stallStart < 0) {
+                    motor.stallStart = now;
+                } else if (now - motor.stallStart > motor.stallTime) {
+                    raise(motor, Alert.Stall, "%.0fA at %.0f", amps, speed);
+                }
+            } else {
+                motor.stallStart = -1.0;
+            }
+
+            // Temperature, only resolved to a degree so the trend is taken over seconds
+            if (now - motor.lastTempTime >= TEMP_SAMPLE_PERIOD) {
+                double temp = motor.temperature.getAsDouble();
+                if (!Double.isNaN(motor.lastTemp)) {
+                    double slope = (temp - motor.lastTemp) / (now - motor.lastTempTime);
+                    motor.tempSlope += TEMP_SLOPE_GAIN * (slope - motor.tempSlope);
+                }
+                motor.lastTemp = temp;
+                motor.lastTempTime = now;
+
+                if (temp > TEMP_LIMIT) {
+                    raise(motor, Alert.Temperature, "%.0fC", temp, 0.0);
+                } else if (temp > TEMP_TREND_MIN && temp + motor.tempSlope * TEMP_PROJECTION > TEMP_LIMIT) {
+                    raise(motor, Alert.Temperature, "%.0fC rising %.2fC/s", temp, motor.tempSlope);
+                }
+            }
+
+            // Follower divergence
+            if (motor.leader != null) {
+                double leaderSpeed = Math.abs(motor.leader.velocity.getAsDouble());
+                boolean fresh = motor.hasFreshVelocity() && motor.leader.hasFreshVelocity();
+                if (fresh && leaderSpeed > motor.minFollowVelocity &&
+                        Math.abs(speed - leaderSpeed) / leaderSpeed > FOLLOWER_TOLERANCE) {
+                    if (motor.divergeStart < 0) {
+                        motor.divergeStart = now;
+                    } else if (now - motor.divergeStart > FOLLOWER_TIME) {
+                        raise(motor, Alert.Follower, "%.0f vs leader %.0f", speed, leaderSpeed);
+                    }
+                } else {
+                    motor.divergeStart = -1.0;
+                }
+            }
+        }
+    }
+
+    private synchronized void raise(Motor motor, Alert alert, String format, double a, double b) {
+        if (motor.hasAlert(alert)) {
+            return;
+        }
+        motor.alerts |= 1 << alert.ordinal();
+        alertMask |= 1 << motor.index;
+        alertCount++;
+        DriverStation.reportWarning("Motor alert: " + motor.name + " " + alert + " " + String.format(format, a, b), false);
+    }
+
+    /**
+     * Bit per registered motor, in registration order, set while it has a
+     * latched alert
+     */
+    public int getAlertMask() {
+        return alertMask;
+    }
+
+    public boolean hasAlert(Motor motor) {
+        return motor.alerts != 0;
+    }
+
+    public synchronized void clearAlerts() {
+        for (Motor motor : motors) {
+            motor.alerts = 0;
+        }
+        alertMask = 0;
+        alertCount = 0;
+        System.out.println("[MotorAnomalyMonitor] Alerts cleared");
+    }
+
+    public void updateDashboard() {
+        StringBuilder active = new StringBuilder();
+        if (alertMask != 0) {
+            for (Motor motor : motors) {
+                for (Alert alert : Alert.values()) {
+                    if (motor.hasAlert(alert)) {
+                        active.append(motor.name).append(' ').append(alert).append("; ");
+                    }
+                }
+            }
+        }
+        SmartDashboard.putString("MotorAlerts/Active", active.toString());
+        SmartDashboard.putNumber("MotorAlerts/Count", alertCount);
+        SmartDashboard.putBoolean("MotorAlerts/Ok", alertMask == 0);
+    }
+}
@@ -0,0 +1,225 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.PowerDistribution.ModuleType;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Subsystems;
+import frc.robot.util.MatchPhase;
+
+/**
+ * Splits the battery between the drive, shooter, climber and compressor.
+ *
+ * Driving hard while the shooter spins up and the compressor runs pulls the
+ * battery low enough to brown out. Every 100 ms the PDH's voltage and current
+ * are read and the robot is put in one of three tiers. Each match phase and
+ * tier has a budget of current limits, with whatever matters in that phase
+ * keeping the most: drive and shooter in auto and teleop, the climber in the
+ * endgame. The compressor is the first thing dropped, the CompressorScheduler
+ * checks isCompressorAllowed().
+ *
+ * Sags are acted on as soon as the filtered voltage drops, stepping back up a
+ * tier waits until the voltage has recovered for a while so limits don't
+ * flap. Limits are only sent to the controllers when the budget changes,
+ * through the MotorConfigQueue.
+ */
+public class PowerManager {
+    private static final double PERIOD_SECONDS = 0.1;
+    private static final int DASHBOARD_DIVIDER = 5;
+
+    private static final double REDUCED_VOLTAGE = 9.5;
+    private static final double CRITICAL_VOLTAGE = 8.0;
+    /** Total draw that moves to Reduced even before the voltage sags */
+    private static final double REDUCED_TOTAL_CURRENT = 300.0;
+    private static final double RECOVER_HYSTERESIS = 0.5;     // volts above the threshold
+    private static final double RECOVER_TIME = 1.0;
+
+    public enum Tier {
+        Normal, Reduced, Critical
+    }
+
+    /**
+     * Current limits for one phase and tier, amps
+     */
+    public static class Budget {
+        public final double drive;
+        public final double shooter;
+        public final double climber;
+        public final boolean compressor;
+
+        Budget(double drive, double shooter, double climber, boolean compressor) {
+            this.drive = drive;
+            this.shooter = shooter;
+            this.climber = climber;
+            this.compressor = compressor;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("drive %.0fA shooter %.0fA climber %.0fA compressor %s",
+                drive, shooter, climber, compressor ? "on" : "off");
+        }
+    }
+
+    /**
+     * A healthy battery keeps the limits the robot always ran with: the 80A
+     * supply limit SDS gives the drive motors and the SparkMax's default 80A
+     * smart limit. Only a sag moves the limits.
+     */
+    private static final Budget NORMAL = new Budget(80, 80, 80, true);
+
+    private static final Budget AUTO_REDUCED = new Budget(50, 50, 20, false);
+    private static final Budget AUTO_CRITICAL = new Budget(40, 35, 20, false);
+
+    private static final Budget TELEOP_REDUCED = new Budget(45, 45, 40, false);
+    private static final Budget TELEOP_CRITICAL = new Budget(35, 30, 30, false);
+
+    private static final Budget ENDGAME_REDUCED = new Budget(35, 30, 80, false);
+    private static final Budget ENDGAME_CRITICAL = new Budget(25, 20, 70, false);
+
+    /**
+     * Budget table, drive and shooter first until the endgame, then the
+     * climber. Phases only differ once the battery sags.
+     */
+    public static Budget getBudget(MatchPhase phase, Tier tier) {
+        switch (phase) {
+            case Auto:
+                return (tier == Tier.Normal) ? NORMAL : (tier == Tier.Reduced) ? AUTO_REDUCED : AUTO_CRITICAL;
+            case Endgame:
+                return (tier == Tier.Normal) ? NORMAL : (tier == Tier.Reduced) ? ENDGAME_REDUCED : ENDGAME_CRITICAL;
+            case Teleop:
+                return (tier == Tier.Normal) ? NORMAL : (tier == Tier.Reduced) ? TELEOP_REDUCED : TELEOP_CRITICAL;
+            case Disabled:
+            default:
+                return NORMAL;
+        }
+    }
+
+    private final PowerDistribution pdh = new PowerDistribution(1, ModuleType.kRev);
+    private final LinearFilter voltageFilter = LinearFilter.singlePoleIIR(0.1, PERIOD_SECONDS);
+    private final double[] channelCurrents = new double[pdh.getNumChannels()];
+    private Notifier notifier;
+
+    private volatile Tier tier = Tier.Normal;
+    private volatile MatchPhase phase = MatchPhase.Disabled;
+    private volatile Budget budget;
+    private volatile double voltage = 12.0;
+    private volatile double totalCurrent = 0.0;
+    private double recoverStart = -1.0;
+    private int criticalEvents = 0;
+    private int samples = 0;
+
+    public void start() {
+        apply(getBudget(phase, tier));
+        notifier = new Notifier(this::sample);
+        notifier.setName("PowerManager");
+        notifier.startPeriodic(PERIOD_SECONDS);
+    }
+
+    private void sample() {
+        final double now = Timer.getFPGATimestamp();
+        double rawVoltage = pdh.getVoltage();
+        voltage = voltageFilter.calculate(rawVoltage);
+        totalCurrent = pdh.getTotalCurrent();
+
+        Tier measured;
+        if (voltage < CRITICAL_VOLTAGE) {
+            measured = Tier.Critical;
+        } else if (voltage < REDUCED_VOLTAGE || totalCurrent > REDUCED_TOTAL_CURRENT) {
+            measured = Tier.Reduced;
+        } else {
+            measured = Tier.Normal;
+        }
+
+        Tier next = tier;
+        if (measured.ordinal() > tier.ordinal()) {
+            next = measured;
+            recoverStart = -1.0;
+            if (measured == Tier.Critical) {
+                criticalEvents++;
+            }
+        } else if (measured.ordinal() < tier.ordinal() && voltage > recoverVoltage(tier) &&
+                totalCurrent < REDUCED_TOTAL_CURRENT) {
+            // Step back up one tier at a time once the battery has held up
+            if (recoverStart < 0) {
+                recoverStart = now;
+            } else if (now - recoverStart > RECOVER_TIME) {
+                next = Tier.values()[tier.ordinal() - 1];
+                recoverStart = -1.0;
+            }
+        } else {
+            recoverStart = -1.0;
+        }
+
+        MatchPhase currentPhase = MatchPhase.current();
+        if (next != tier || currentPhase != phase) {
+            if (next != tier) {
+                System.out.println(String.format("[PowerManager] %s -> %s at %.2fV %.0fA", tier, next, voltage, totalCurrent));
+            }
+            tier = next;
+            phase = currentPhase;
+            apply(getBudget(phase, tier));
+        }
+
+        if (++samples % DASHBOARD_DIVIDER == 0) {
+            for (int i = 0; i < channelCurrents.length; i++) {
+                channelCurrents[i] = pdh.getCurrent(i);
+            }
+            updateDashboard();
+        }
+    }
+
+    private static double recoverVoltage(Tier from) {
+        return ((from == Tier.Critical) ? CRITICAL_VOLTAGE : REDUCED_VOLTAGE) + RECOVER_HYSTERESIS;
+    }
+
+    private void apply(Budget next) {
+        if (next == budget) {
+            return;
+        }
+        if (budget == null || next.drive != budget.drive) {
+            Subsystems.drivetrainSubsystem.setDriveCurrentLimit(next.drive);
+        }
+        if (budget == null || next.shooter != budget.shooter) {
+            Subsystems.shooterSubsystem.setCurrentLimit(next.shooter);
+        }
+        if (budget == null || next.climber != budget.climber) {
+            Subsystems.climberSubsystem.setCurrentLimit(next.climber);
+        }
+        budget = next;
+        if (tier == Tier.Critical) {
+            DriverStation.reportWarning("Battery critical, limiting " + next, false);
+        }
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public boolean isCompressorAllowed() {
+        return budget == null || budget.compressor;
+    }
+
+    private void updateDashboard() {
+        SmartDashboard.putNumber("Power/Voltage", voltage);
+        SmartDashboard.putNumber("Power/TotalAmps", totalCurrent);
+        SmartDashboard.putString("Power/Tier", tier.name());
+        SmartDashboard.putString("Power/Phase", phase.name());
+        SmartDashboard.putNumber("Power/CriticalEvents", criticalEvents);
+        Budget current = budget;
+        if (current != null) {
+            SmartDashboard.putNumber("Power/Limit/Drive", current.drive);
+            SmartDashboard.putNumber("Power/Limit/Shooter", current.shooter);
+            SmartDashboard.putNumber("Power/Limit/Climber", current.climber);
+            SmartDashboard.putBoolean("Power/Limit/Compressor", current.compressor);
+        }
+        SmartDashboard.putNumberArray("Power/ChannelAmps", channelCurrents);
+    }
+}
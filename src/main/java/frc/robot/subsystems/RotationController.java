@@ -4,30 +4,100 @@
 
 package frc.robot.subsystems;
 
-import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj.Timer;
 
-/** Add your docs here. */
-public class RotationController extends PIDController {
+/**
+ * Heading controller shared by teleop heading lock, turn commands and the
+ * profiled distance drives. Everything is in degrees, output is in degrees
+ * per second.
+ *
+ * A new goal is approached along a trapezoid profile. The profile's velocity
+ * is fed forward and the PID only corrects the error from the profiled
+ * position, so large turns no longer wind up an integrator and overshoot.
+ *
+ * Commands share one instance, if it has not been used for a little while the
+ * profile restarts from the measured heading instead of wherever the last
+ * user left it.
+ */
+public class RotationController {
 
     private static final double kP = 4.0; //0.01; //4.25;
-    private static final double kI = 1.35; // 3.0;
+    private static final double kI = 0.0; // 1.35 before feedforward
     private static final double kD = 0.0; // 0;
 
+    /** Leave headroom for translation, matches the old output clamp */
+    public static final double MAX_VELOCITY = 0.6 * DrivetrainSubsystem.MAX_ANGULAR_VELOCITY_DEGREES_PER_SECOND;
+    public static final double MAX_ACCELERATION = DrivetrainSubsystem.MAX_ANGULAR_ACCELERATION_DEGREES_PER_SECOND_SQUARED;
+
+    private static final double STALE_TIME = 0.1;
+
     private double tolerance = 2.0;
+    private final ProfiledPIDController controller;
+    private double lastCalculateTime = 0.0;
 
     public RotationController() {
         this(kP, kI, kD);
     }
 
     public RotationController(double kp, double ki, double kd) {
-        super(kp, ki, kd);
-        this.enableContinuousInput(-180, 180);
-        this.setIntegratorRange(-5, 5);
-        this.setTolerance(tolerance);
+        controller = new ProfiledPIDController(kp, ki, kd,
+            new TrapezoidProfile.Constraints(MAX_VELOCITY, MAX_ACCELERATION));
+        controller.enableContinuousInput(-180, 180);
+        controller.setIntegratorRange(-5, 5);
+        controller.setTolerance(tolerance);
+    }
+
+    /**
+     * @param measurement current heading in degrees
+     * @param goal        target heading in degrees
+     * @return rotation rate in degrees per second
+     */
+    public double calculate(double measurement, double goal) {
+        controller.setGoal(goal);
+        return calculate(measurement);
+    }
+
+    /**
+     * Continues towards the last goal
+     */
+    public double calculate(double measurement) {
+        final double now = Timer.getFPGATimestamp();
+        if (now - lastCalculateTime > STALE_TIME) {
+            controller.reset(measurement);
+        }
+        lastCalculateTime = now;
+
+        double feedback = controller.calculate(measurement);
+        return feedback + controller.getSetpoint().velocity;
+    }
+
+    public void setSetpoint(double goal) {
+        controller.setGoal(goal);
+    }
+
+    public double getSetpoint() {
+        return controller.getGoal().position;
+    }
+
+    /**
+     * Restarts the profile from the given heading and rate, e.g. when a driver
+     * lets go of the rotation stick while still turning
+     */
+    public void reset(double measurement, double velocity) {
+        controller.reset(measurement, velocity);
+        lastCalculateTime = Timer.getFPGATimestamp();
+    }
+
+    public void reset(double measurement) {
+        reset(measurement, 0.0);
     }
 
-    public static double clampToDPS(double outputPercent) {
-        return MathUtil.clamp(outputPercent, -0.6, 0.6) * DrivetrainSubsystem.MAX_ANGULAR_VELOCITY_DEGREES_PER_SECOND;
+    /**
+     * Whether the heading has reached the goal and the profile has finished
+     */
+    public boolean atSetpoint() {
+        return controller.atGoal();
     }
 }
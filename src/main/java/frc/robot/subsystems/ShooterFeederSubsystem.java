@@ -8,6 +8,8 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Subsystems;
+import frc.robot.subsystems.DMS.MotorHealth;
+import frc.robot.subsystems.CANBandwidthManager.Mode;
 
 public class ShooterFeederSubsystem extends SubsystemBase implements Lifecycle {
   private boolean shooting = false;
@@ -19,14 +21,12 @@ public class ShooterFeederSubsystem extends SubsystemBase implements Lifecycle {
   private final double DEFAULT_FEEDER_SPEED = -1;
   private static final String FEEDER_SPEED_KEY = "Feeder Speed";
   private boolean autoFeeder = false;
+  private boolean dmsMode = false;
 
   public ShooterFeederSubsystem() {
     feederMotor.restoreFactoryDefaults();
     feederMotor.setIdleMode(CANSparkMax.IdleMode.kCoast);
 
-    feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 500);
-    feederMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 500);
-
     SmartDashboard.setDefaultNumber(FEEDER_SPEED_KEY, DEFAULT_FEEDER_SPEED);
     SmartDashboard.setDefaultNumber("Feeder/QueuingSpeed", QUEUING_FEEDER_SPEED);
     SmartDashboard.setDefaultBoolean("Feeder/QueuingEnabled", queuingEnabled);
@@ -74,9 +74,40 @@ public class ShooterFeederSubsystem extends SubsystemBase implements Lifecycle {
   public boolean isShooting() {
     return shooting;
   }
+
+  /**
+   * Hands the feeder motor to a health check
+   */
+  public void setDmsMode(boolean mode) {
+    this.dmsMode = mode;
+  }
+
+  /**
+   * Nothing reads the feeder's encoder outside of health checks
+   */
+  public void addCANFrames(CANBandwidthManager manager) {
+    manager.spark("Feeder", feederMotor)
+      .frame(PeriodicFrame.kStatus1, 500, 20, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 500);
+  }
+
+  public void addMotorMonitors(MotorAnomalyMonitor monitor) {
+    monitor.add("Feeder", feederMotor::getOutputCurrent, () -> feederMotor.getEncoder().getVelocity(), feederMotor::getMotorTemperature)
+      .stall(30, 50, 1.0);
+  }
+
+  public MotorHealth createMotorHealth() {
+    return new MotorHealth("Feeder", this::setDmsMode, feederMotor::set)
+      .leader(feederMotor::getOutputCurrent, () -> feederMotor.getEncoder().getVelocity())
+      .step(-0.25, 1.5)
+      .step(-0.5, 1.5);
+  }
   
   @Override
   public void periodic() {
+    if (dmsMode) {
+      return;
+    }
     double feederSpeed = 0.0;
 
     if (shooting) {
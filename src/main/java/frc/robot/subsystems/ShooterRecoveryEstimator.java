@@ -0,0 +1,121 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Estimates how much longer the shooter wheel takes to recover after a shot
+ * because of battery sag.
+ *
+ * With voltage compensation the wheel gets the same volts for a given output
+ * as long as the battery stays above the compensation voltage. Below that the
+ * free speed the wheel accelerates towards drops, which stretches recovery. We
+ * model a saturated recovery as a first order rise towards free speed,
+ *
+ *   w(t) = wFree - (wFree - wDip) * e^(-t / tau)
+ *
+ * learn tau from observed recoveries and use it to predict the penalty at the
+ * current battery voltage.
+ */
+public class ShooterRecoveryEstimator {
+    /** Fraction of target RPM we consider recovered / dipped */
+    private static final double RECOVERED_RATIO = 0.95;
+    /** Dip depth used for the predicted penalty, roughly one ball through the wheel */
+    private static final double TYPICAL_DIP_RATIO = 0.80;
+    private static final double TAU_FILTER_GAIN = 0.3;
+    private static final double MAX_REPORTED_SECONDS = 5.0;
+
+    private final String prefix;
+    private final double nominalVoltage;
+
+    private double timeConstant = 0.4;  // seconds, refined by observed recoveries
+    private boolean atSpeed = false;
+    private boolean recovering = false;
+    private double recoveryStart = 0.0;
+    private double dipRPM = 0.0;
+    private double dipVoltage = 0.0;
+    private double lastTargetRPM = 0.0;
+
+    /**
+     * @param prefix         dashboard prefix, e.g. "Shooter/Recovery"
+     * @param nominalVoltage voltage compensation setpoint of the controller
+     */
+    public ShooterRecoveryEstimator(String prefix, double nominalVoltage) {
+        this.prefix = prefix;
+        this.nominalVoltage = nominalVoltage;
+    }
+
+    /**
+     * Call once per loop while the wheel is under closed loop control
+     *
+     * @param now        timestamp in seconds
+     * @param targetRPM  closed loop target
+     * @param actualRPM  measured wheel speed
+     * @param voltage    battery voltage
+     * @param kFF        controller feed forward in output per RPM
+     */
+    public void update(double now, double targetRPM, double actualRPM, double voltage, double kFF) {
+        // Only learn from dips caused by balls, not from the target moving
+        if (Math.abs(targetRPM - lastTargetRPM) > 1 || targetRPM <= 0) {
+            lastTargetRPM = targetRPM;
+            atSpeed = false;
+            recovering = false;
+            return;
+        }
+
+        double threshold = targetRPM * RECOVERED_RATIO;
+        if (!recovering) {
+            if (actualRPM >= threshold) {
+                atSpeed = true;
+            } else if (atSpeed) {
+                recovering = true;
+                recoveryStart = now;
+                dipRPM = actualRPM;
+                dipVoltage = voltage;
+            }
+        } else {
+            dipRPM = Math.min(dipRPM, actualRPM);
+            dipVoltage = Math.min(dipVoltage, voltage);
+            if (actualRPM >= threshold) {
+                recovering = false;
+                double elapsed = now - recoveryStart;
+                double ratio = Math.log(riseRatio(dipRPM, threshold, dipVoltage, kFF));
+                if (ratio > 0 && Double.isFinite(ratio)) {
+                    double observedTau = elapsed / ratio;
+                    timeConstant += TAU_FILTER_GAIN * (observedTau - timeConstant);
+                }
+                SmartDashboard.putNumber(prefix + "/LastTime", elapsed);
+                SmartDashboard.putNumber(prefix + "/LastVoltage", dipVoltage);
+                SmartDashboard.putNumber(prefix + "/TimeConstant", timeConstant);
+            }
+        }
+
+        SmartDashboard.putNumber(prefix + "/SagPenalty", predictPenalty(targetRPM, voltage, kFF));
+    }
+
+    /**
+     * Predicted extra recovery time at the given voltage compared to a battery at
+     * or above the compensation voltage.
+     */
+    public double predictPenalty(double targetRPM, double voltage, double kFF) {
+        double dip = targetRPM * TYPICAL_DIP_RATIO;
+        double threshold = targetRPM * RECOVERED_RATIO;
+        double sagged = recoveryTime(dip, threshold, voltage, kFF);
+        double nominal = recoveryTime(dip, threshold, nominalVoltage, kFF);
+        return Math.min(sagged - nominal, MAX_REPORTED_SECONDS);
+    }
+
+    private double recoveryTime(double fromRPM, double toRPM, double voltage, double kFF) {
+        double ratio = riseRatio(fromRPM, toRPM, voltage, kFF);
+        if (!(ratio > 0) || !Double.isFinite(ratio)) {
+            return MAX_REPORTED_SECONDS; // free speed below target, never recovers
+        }
+        return timeConstant * Math.log(ratio);
+    }
+
+    private double riseRatio(double fromRPM, double toRPM, double voltage, double kFF) {
+        // Output is scaled to the compensation voltage, so the wheel can't see more than that
+        double available = Math.min(voltage, nominalVoltage);
+        double freeRPM = available / (kFF * nominalVoltage);
+        return (freeRPM - fromRPM) / (freeRPM - toRPM);
+    }
+}
@@ -7,12 +7,19 @@ import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Solenoid;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Subsystems;
+import frc.robot.subsystems.CANBandwidthManager.Mode;
+import frc.robot.subsystems.DMS.MotorHealth;
+import frc.robot.util.BSPrefs;
+import frc.robot.util.MotorConfigQueue;
 
 public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
 
@@ -22,6 +29,22 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
   private final CANSparkMax followerMotor = new CANSparkMax(Constants.SHOOTERWHEELLEFT_MOTOR_ID, MotorType.kBrushless);
   private final CANSparkMax backspinMotor = new CANSparkMax(Constants.BACKSPIN_BOI_ID, MotorType.kBrushless);
 
+  /**
+   * Controllers scale output to this voltage instead of whatever the battery has.
+   * Set below a late match sagged battery so spin-up is the same all match.
+   */
+  public static final double NOMINAL_VOLTAGE = 11.0;
+  /**
+   * The backspin wheel runs close to free speed at its 4800 RPM shots, at 11V
+   * its feed forward alone would ask for more than full output. It compensates
+   * to a higher voltage instead, which still holds it steady down to there.
+   */
+  public static final double BACKSPIN_NOMINAL_VOLTAGE = 12.5;
+  /** Fastest backspin target any profile asks for */
+  private static final double MAX_BACKSPIN_RPM = 4800;
+  /** Battery voltage the feed forwards were originally tuned against */
+  private static final double FF_TUNED_VOLTAGE = 12.8;
+
   private final double DEFAULT_SHOOTER_SPEED = .3;
   private static final String SHOOTER_SPEED_KEY = "Shooter Speed";
   public double kP, kI, kD, kIz, kFF, kMaxOutput, kMinOutput, maxRPM;
@@ -50,6 +73,7 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
   private ShooterProfile currentProfile = ShooterProfile.Off;
 
   private boolean closedLoop = true;
+  private boolean dmsMode = false;
   private double targetRPM = 0.0;
   private double lastTargetRPM = 0.0;
 
@@ -60,9 +84,26 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
   private double backspinP = 0.0004;
   private double backspinI = 0.0;
   private double backspinD = 0.0;
-  private double backspinFF = 0.000193;
+  private double backspinFF = 0.000193 * FF_TUNED_VOLTAGE / BACKSPIN_NOMINAL_VOLTAGE;
+
+  private final ShooterRecoveryEstimator recoveryEstimator = new ShooterRecoveryEstimator("Shooter/Recovery", NOMINAL_VOLTAGE);
+  private final ShooterRecoveryEstimator backspinRecoveryEstimator = new ShooterRecoveryEstimator("Shooter/Backspin/Recovery", BACKSPIN_NOMINAL_VOLTAGE);
+  private CANBandwidthManager.Controller<PeriodicFrame> shooterFrames;
+  private CANBandwidthManager.Controller<PeriodicFrame> followerFrames;
 
   private ShooterDynamicDistance dynamicDistance = new ShooterDynamicDistance();
+
+  // Shot table coefficients, refit between matches with frc.robot.tools.ShotTableFitter
+  public static final String MID_SHOT_A_KEY = "ShotMidA";
+  public static final String MID_SHOT_B_KEY = "ShotMidB";
+  public static final String MID_SHOT_C_KEY = "ShotMidC";
+  public static final String LONG_SHOT_A_KEY = "ShotLongA";
+  public static final String LONG_SHOT_B_KEY = "ShotLongB";
+
+  private final ShotLogger shotLogger = new ShotLogger();
+  private ShootInfo lastShootInfo = new ShootInfo();
+  private double filteredDistance = -1;
+  private boolean lastBallDetected = false;
   
 
   public ShooterSubsystem() {
@@ -75,13 +116,13 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
     rightShooterMotor.setIdleMode(CANSparkMax.IdleMode.kCoast);
     followerMotor.follow(rightShooterMotor, true);
 
-    followerMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 100);
-    followerMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, 500);
-    followerMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 500);
-
     backspinMotor.setIdleMode(CANSparkMax.IdleMode.kCoast);
     backspinMotor.setInverted(true);
 
+    rightShooterMotor.enableVoltageCompensation(NOMINAL_VOLTAGE);
+    followerMotor.enableVoltageCompensation(NOMINAL_VOLTAGE);
+    backspinMotor.enableVoltageCompensation(BACKSPIN_NOMINAL_VOLTAGE);
+
     shooterHood.set(false);
 
     SmartDashboard.setDefaultNumber(SHOOTER_SPEED_KEY, DEFAULT_SHOOTER_SPEED);
@@ -97,7 +138,7 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
     kI = 0;
     kD = 0;
     kIz = 0;
-    kFF = 0.00019;
+    kFF = 0.00019 * FF_TUNED_VOLTAGE / NOMINAL_VOLTAGE; // rescaled from fresh battery tuning
     kMaxOutput = 1;
     kMinOutput = -1;
     maxRPM = 2500;
@@ -137,6 +178,22 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
     backspinPID.setD(backspinD);
     backspinPID.setFF(backspinFF);
 
+    checkFeedForwardHeadroom("Shooter", maxRPM, kFF);
+    checkFeedForwardHeadroom("Backspin", MAX_BACKSPIN_RPM, backspinFF);
+  }
+
+  /**
+   * The closed loop can't reach a target whose feed forward alone saturates
+   * the output, warn before that shows up as slow shots
+   */
+  static boolean checkFeedForwardHeadroom(String name, double maxTargetRPM, double ff) {
+    double output = maxTargetRPM * ff;
+    if (output >= 1.0) {
+      DriverStation.reportError(String.format("%s feed forward saturates at %.0f RPM (%.2f output), raise its compensation voltage",
+          name, maxTargetRPM, output), false);
+      return false;
+    }
+    return true;
   }
 
   @Override
@@ -162,6 +219,15 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
 
   };
 
+  /**
+   * Whether the flywheel is still well short of its target, when it pulls
+   * the most current
+   */
+  public boolean isSpinningUp(double ratio) {
+    return enabled && targetRPM != 0 &&
+      Math.abs(rightShooterMotor.getEncoder().getVelocity()) < ratio * Math.abs(targetRPM);
+  }
+
   public void disableMinimumSpeedCheck() {
     this.minimumSpeedCheckEnabled = false;
   }
@@ -170,6 +236,10 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
     this.enabled = true;
   }
 
+  public boolean isEnabled() {
+    return enabled;
+  }
+
   public void disable() {
     this.enabled = false;
     targetRPM = 0;
@@ -186,6 +256,79 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
   public void disableShootingDriveSpeedThrottle() { this.shootingDriveSpeedThrottle = false; }
   public boolean isShootingDriveSpeedThrottle() { return this.shootingDriveSpeedThrottle; }
 
+  /**
+   * Hands the shooter and backspin motors to a health check
+   */
+  public void setDmsMode(boolean mode) {
+    this.dmsMode = mode;
+    rightShooterMotor.set(0.0);
+    backspinMotor.set(0.0);
+    // Force the next closed loop reference to be sent
+    lastTargetRPM = Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Wheel speeds are only needed quickly while the shooter is running, the
+   * follower's only for the anomaly monitor and health checks
+   */
+  public void addCANFrames(CANBandwidthManager manager) {
+    shooterFrames = manager.spark("Shooter", rightShooterMotor)
+      .frame(PeriodicFrame.kStatus1, 100, 20, Mode.Auto, Mode.Teleop, Mode.Shooting, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 500);
+    followerFrames = manager.spark("Shooter/Follower", followerMotor)
+      .frame(PeriodicFrame.kStatus0, 100)
+      .frame(PeriodicFrame.kStatus1, 500, 20, Mode.Shooting, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 500);
+    manager.spark("Shooter/Backspin", backspinMotor)
+      .frame(PeriodicFrame.kStatus1, 100, 20, Mode.Shooting, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 500);
+  }
+
+  /**
+   * Smart current limit of the shooter and backspin motors, set by the
+   * PowerManager
+   */
+  public void setCurrentLimit(double amps) {
+    var configQueue = MotorConfigQueue.getInstance();
+    configQueue.enqueueRev("Shooter/CurrentLimit", () -> rightShooterMotor.setSmartCurrentLimit((int) amps));
+    configQueue.enqueueRev("Shooter/Follower/CurrentLimit", () -> followerMotor.setSmartCurrentLimit((int) amps));
+    configQueue.enqueueRev("Shooter/Backspin/CurrentLimit", () -> backspinMotor.setSmartCurrentLimit((int) amps));
+  }
+
+  public void addMotorMonitors(MotorAnomalyMonitor monitor) {
+    var shooter = monitor.add("Shooter", rightShooterMotor::getOutputCurrent,
+        () -> rightShooterMotor.getEncoder().getVelocity(), rightShooterMotor::getMotorTemperature)
+      .stall(40, 100, 1.0)
+      .velocityFrame(() -> shooterFrames.getActivePeriod(PeriodicFrame.kStatus1));
+    monitor.add("ShooterFollower", followerMotor::getOutputCurrent,
+        () -> followerMotor.getEncoder().getVelocity(), followerMotor::getMotorTemperature)
+      .stall(40, 100, 1.0)
+      .velocityFrame(() -> followerFrames.getActivePeriod(PeriodicFrame.kStatus1))
+      .follows(shooter, 500);
+    monitor.add("Backspin", backspinMotor::getOutputCurrent,
+        () -> backspinMotor.getEncoder().getVelocity(), backspinMotor::getMotorTemperature)
+      .stall(40, 100, 1.0);
+  }
+
+  public MotorHealth createShooterMotorHealth() {
+    return new MotorHealth("Shooter", this::setDmsMode, rightShooterMotor::set)
+      .leader(rightShooterMotor::getOutputCurrent, () -> rightShooterMotor.getEncoder().getVelocity())
+      .follower(followerMotor::getOutputCurrent, () -> followerMotor.getEncoder().getVelocity())
+      .step(0.3, 2.0)
+      .step(0.5, 2.0);
+  }
+
+  public MotorHealth createBackspinMotorHealth() {
+    return new MotorHealth("Backspin", this::setDmsMode, backspinMotor::set)
+      .leader(backspinMotor::getOutputCurrent, () -> backspinMotor.getEncoder().getVelocity())
+      .step(0.3, 2.0)
+      .step(0.6, 2.0);
+  }
+
+  public ShotLogger getShotLogger() {
+    return this.shotLogger;
+  }
+
   /*
    * 2496.45 RPM works for the corner shot next to the driverstation with hood
    * closed
@@ -278,6 +421,7 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
     // }
     var distance = info.distanceToTarget;
     var range = dynamicDistance.getCurrentShootingRange(distance);
+    shootInfo.range = range;
 
     shortShotAdjust = SmartDashboard.getNumber("Short Shot Adjust", shortShotAdjust);
     midShotAdjust = SmartDashboard.getNumber("Mid Shot Adjust", midShotAdjust);
@@ -292,14 +436,23 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
         shootInfo.hoodOpen = true;
       }
       else if (ShooterDynamicDistance.Range.Middle == range) {
-        shootInfo.shooterRPM = midShotAdjust * ((.0487 * (distance * distance)) - (5.50 * distance) + 845);
+        var prefs = BSPrefs.getInstance();
+        double a = prefs.getDouble(MID_SHOT_A_KEY, .0487);
+        double b = prefs.getDouble(MID_SHOT_B_KEY, 5.50);
+        double c = prefs.getDouble(MID_SHOT_C_KEY, 845);
+        shootInfo.shooterRPM = midShotAdjust * ((a * (distance * distance)) - (b * distance) + c);
         shootInfo.backspinRPM = 4800;
         shootInfo.hoodOpen = true;
+        shootInfo.adjust = midShotAdjust;
       } 
       else if (ShooterDynamicDistance.Range.Long == range) {
-        shootInfo.shooterRPM = longShotAdjust * ((6.76 * distance) + 81);
+        var prefs = BSPrefs.getInstance();
+        double a = prefs.getDouble(LONG_SHOT_A_KEY, 6.76);
+        double b = prefs.getDouble(LONG_SHOT_B_KEY, 81);
+        shootInfo.shooterRPM = longShotAdjust * ((a * distance) + b);
         shootInfo.backspinRPM = 4800;
         shootInfo.hoodOpen = false;
+        shootInfo.adjust = longShotAdjust;
       }
     } else {
       // Range was unknonw,  No target detected, return current state
@@ -314,6 +467,10 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
   @Override
   public void periodic() {
 
+    if (dmsMode) {
+      return;
+    }
+
     if (!enabled) {
       rightShooterMotor.set(0.0);
       backspinMotor.set(0.0);
@@ -334,30 +491,31 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
       double min = SmartDashboard.getNumber("Shooter/Min Output", 0);
       double rpm = SmartDashboard.getNumber("Shooter/TargetRPM", 0);
 
-      // if PID coefficients on SmartDashboard have changed, write new values to
+      // if PID coefficients on SmartDashboard have changed, queue new values for the controller
       var pidController = rightShooterMotor.getPIDController();
+      var configQueue = MotorConfigQueue.getInstance();
       if ((p != kP)) {
-        pidController.setP(p);
+        configQueue.enqueueRev("Shooter/P", () -> pidController.setP(p));
         kP = p;
       }
       if ((i != kI)) {
-        pidController.setI(i);
+        configQueue.enqueueRev("Shooter/I", () -> pidController.setI(i));
         kI = i;
       }
       if ((d != kD)) {
-        pidController.setD(d);
+        configQueue.enqueueRev("Shooter/D", () -> pidController.setD(d));
         kD = d;
       }
       if ((iz != kIz)) {
-        pidController.setIZone(iz);
+        configQueue.enqueueRev("Shooter/IZone", () -> pidController.setIZone(iz));
         kIz = iz;
       }
       if ((ff != kFF)) {
-        pidController.setFF(ff);
+        configQueue.enqueueRev("Shooter/FF", () -> pidController.setFF(ff));
         kFF = ff;
       }
       if ((max != kMaxOutput) || (min != kMinOutput)) {
-        pidController.setOutputRange(min, max);
+        configQueue.enqueueRev("Shooter/OutputRange", () -> pidController.setOutputRange(min, max));
         kMinOutput = min;
         kMaxOutput = max;
       }
@@ -380,15 +538,15 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
 
      var bpidController = backspinMotor.getPIDController();
      if ((bp != backspinP)) {
-      bpidController.setP(bp);
+      configQueue.enqueueRev("Shooter/Backspin/P", () -> bpidController.setP(bp));
       backspinP = bp;
     }
     if ((bi != backspinI)) {
-      bpidController.setI(bi);
+      configQueue.enqueueRev("Shooter/Backspin/I", () -> bpidController.setI(bi));
       backspinI = bi;
     }
     if ((bd != backspinD)) {
-      bpidController.setD(bd);
+      configQueue.enqueueRev("Shooter/Backspin/D", () -> bpidController.setD(bd));
       backspinD = bd;
     }
     // if ((biz != kIz)) {
@@ -414,6 +572,7 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
       // ------------------- Dynamic Override --------------------//
       if (currentProfile == ShooterProfile.Dynamic) {
         var dynamicInfo = calculateDynamicRPM();
+        lastShootInfo = dynamicInfo;
         targetRPM = dynamicInfo.shooterRPM;
         backspinTargetRPM = dynamicInfo.backspinRPM;
 
@@ -422,15 +581,15 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
       }
 
       // Finally do a check about alliance matching
-      if (badBallDetectionEnabled && Subsystems.detectBallSubsystem.isEnabled() && 
-          Subsystems.detectBallSubsystem.isBallDetected() && 
+      if (badBallDetectionEnabled && 
           mismatchBallDetectionEnabled &&
-          !Subsystems.detectBallSubsystem.doesBallMatchAlliance()) {
+          Subsystems.ballTracker.isMismatchedBallQueued()) {
         targetRPM = ShooterProfile.HangerDump.value;
       }
 
       // Apply safety RPMs
       targetRPM = MathUtil.clamp(targetRPM, -maxRPM, maxRPM);
+      backspinTargetRPM = MathUtil.clamp(backspinTargetRPM, -MAX_BACKSPIN_RPM, MAX_BACKSPIN_RPM);
 
       // Send data to controller
       SmartDashboard.putNumber("Shooter/TargetRPM", targetRPM);
@@ -444,12 +603,21 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
 
       backspinMotor.getPIDController().setReference(backspinTargetRPM, ControlType.kVelocity);
 
-      SmartDashboard.putNumber("Actual RPM", rightShooterMotor.getEncoder().getVelocity());
-      SmartDashboard.putNumber("Actual Backspin RPM", backspinMotor.getEncoder().getVelocity());
-      SmartDashboard.putNumber("Shooter/Backspin/ActualRPM", backspinMotor.getEncoder().getVelocity());
+      double actualRPM = rightShooterMotor.getEncoder().getVelocity();
+      double actualBackspinRPM = backspinMotor.getEncoder().getVelocity();
+      double now = Timer.getFPGATimestamp();
+      double voltage = RobotController.getBatteryVoltage();
+      recoveryEstimator.update(now, targetRPM, actualRPM, voltage, kFF);
+      backspinRecoveryEstimator.update(now, backspinTargetRPM, actualBackspinRPM, voltage, backspinFF);
+
+      SmartDashboard.putNumber("Actual RPM", actualRPM);
+      SmartDashboard.putNumber("Actual Backspin RPM", actualBackspinRPM);
+      SmartDashboard.putNumber("Shooter/Backspin/ActualRPM", actualBackspinRPM);
 
       SmartDashboard.putBoolean("Shooter/BallDetection", this.badBallDetectionEnabled);
       SmartDashboard.putBoolean("Shooter/MismatchBallDetection", this.mismatchBallDetectionEnabled);
+
+      recordShots();
     } else {
       
       // Handle Open Loop Control
@@ -467,6 +635,39 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
   }
 
 
+  /**
+   * Logs a shot when a ball leaves the color sensor while the feeder is pulling,
+   * which is the closest signal we have to the ball entering the wheel.
+   */
+  private void recordShots() {
+    var info = Subsystems.visionSubsystem.getVisionInfo();
+    if (info.distanceToTarget > 0) {
+      filteredDistance = distanceFilter.calculate(info.distanceToTarget);
+    }
+
+    boolean ballDetected = Subsystems.detectBallSubsystem.isBallDetected();
+    if (lastBallDetected && !ballDetected && Subsystems.feederSubsystem.isShooting()) {
+      var speeds = Subsystems.drivetrainSubsystem.getMeasuredChassisSpeeds();
+
+      var shot = new ShotLogger.Shot();
+      shot.profile = currentProfile.name();
+      shot.range = (currentProfile == ShooterProfile.Dynamic) ? lastShootInfo.range.name() : "";
+      shot.distance = filteredDistance;
+      shot.targetRPM = targetRPM;
+      shot.actualRPM = rightShooterMotor.getEncoder().getVelocity();
+      shot.rpmAdjust = (currentProfile == ShooterProfile.Dynamic) ? lastShootInfo.adjust : 1.0;
+      shot.backspinTargetRPM = backspinTargetRPM;
+      shot.backspinRPM = backspinMotor.getEncoder().getVelocity();
+      shot.hoodOpen = shooterHood.get();
+      shot.turretError = info.hasTarget ? info.xOffset : Double.NaN;
+      shot.chassisVelocity = Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
+      shot.chassisOmega = speeds.omegaRadiansPerSecond;
+      shotLogger.logShot(shot);
+    }
+    lastBallDetected = ballDetected;
+  }
+
+
   private class ShootInfo {
     // public static final double BACKSPIN_THRESHOLD = 80;
     // public static final double HOOD_THRESHOLD = 165;
@@ -474,6 +675,8 @@ public class ShooterSubsystem extends SubsystemBase implements Lifecycle {
     public double shooterRPM = 0;
     public double backspinRPM = 0;
     public boolean hoodOpen = false;
+    public ShooterDynamicDistance.Range range = ShooterDynamicDistance.Range.Unknown;
+    public double adjust = 1.0;
 
     @Override
     public String toString() {
@@ -0,0 +1,82 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.util.CsvLog;
+
+/**
+ * Records every shot the robot takes so the dynamic shot table can be refit
+ * between matches with frc.robot.tools.ShotTableFitter.
+ *
+ * Shots and driver hit/miss tags are separate records in the same append-only
+ * file, a tag refers back to the shot id it grades.
+ */
+public class ShotLogger {
+    private static final String SHOT_LOG_FILE = "/home/lvuser/shots.csv";
+
+    public static final String SHOT_RECORD = "shot";
+    public static final String TAG_RECORD = "tag";
+
+    private final CsvLog log = new CsvLog(SHOT_LOG_FILE,
+        "type", "id", "fpgaTime", "matchTime", "profile", "range", "distance",
+        "targetRPM", "actualRPM", "rpmAdjust", "backspinTargetRPM", "backspinRPM",
+        "hoodOpen", "turretError", "chassisVelocity", "chassisOmega", "result");
+
+    // Unique across robot restarts so tags can never be joined to an old session's shot
+    private final long sessionStart = System.currentTimeMillis() / 1000;
+    private int shotCount = 0;
+    private int lastTaggedShot = 0;
+
+    public static class Shot {
+        public String profile;
+        public String range;
+        public double distance;
+        public double targetRPM;
+        public double actualRPM;
+        public double rpmAdjust = 1.0;
+        public double backspinTargetRPM;
+        public double backspinRPM;
+        public boolean hoodOpen;
+        public double turretError;
+        public double chassisVelocity;
+        public double chassisOmega;
+    }
+
+    public void logShot(Shot shot) {
+        shotCount++;
+        log.log(SHOT_RECORD, shotId(shotCount), Timer.getFPGATimestamp(), DriverStation.getMatchTime(),
+            shot.profile, shot.range, shot.distance,
+            shot.targetRPM, shot.actualRPM, shot.rpmAdjust, shot.backspinTargetRPM, shot.backspinRPM,
+            shot.hoodOpen, shot.turretError, shot.chassisVelocity, shot.chassisOmega, "");
+        SmartDashboard.putNumber("Shooter/ShotLog/Shots", shotCount);
+    }
+
+    public void tagLastShotHit() {
+        tagLastShot(true);
+    }
+
+    public void tagLastShotMiss() {
+        tagLastShot(false);
+    }
+
+    /**
+     * Grades the most recent shot. Re-tagging the same shot is allowed, the fitter
+     * keeps the latest tag so a fat-fingered button can be corrected.
+     */
+    public void tagLastShot(boolean hit) {
+        if (shotCount == 0) {
+            System.out.println("[ShotLogger] No shot to tag");
+            return;
+        }
+        lastTaggedShot = shotCount;
+        String result = hit ? "HIT" : "MISS";
+        log.log(TAG_RECORD, shotId(lastTaggedShot), Timer.getFPGATimestamp(), DriverStation.getMatchTime(),
+            "", "", "", "", "", "", "", "", "", "", "", "", result);
+        SmartDashboard.putString("Shooter/ShotLog/LastTag", lastTaggedShot + ": " + result);
+    }
+
+    private String shotId(int shot) {
+        return sessionStart + "-" + shot;
+    }
+}
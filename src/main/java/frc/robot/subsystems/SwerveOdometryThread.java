@@ -0,0 +1,338 @@
+package frc.robot.subsystems;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.swervedrivespecialties.swervelib.SwerveModule;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.subsystems.gyro.BSGyro;
+
+/**
+ * Runs swerve odometry on its own thread, faster than the robot loop.
+ *
+ * Each pass reads the measured drive motor positions, steer angles (from the
+ * steer TalonFX integrated sensors) and gyro yaw, integrates the pose from the
+ * position deltas and publishes a timestamped sample. Readers never block,
+ * they get the latest published sample or look back through a small ring
+ * buffer of recent samples.
+ *
+ * Rotation comes from the gyro. Subtracting that rotation from each module's
+ * displacement leaves the chassis translation as seen by that module, and on a
+ * rigid chassis all four must agree. A module that disagrees with the median
+ * of all four by more than SLIP_SPEED over the last few passes is slipping
+ * (spinning under power or skidding while pushed) and is left out of the
+ * translation until it has agreed again for SLIP_HOLD_TIME.
+ */
+public class SwerveOdometryThread {
+    public static final double PERIOD_SECONDS = 0.005;
+    /** Status frame period for the feedback we read, matches our update rate */
+    static final int FEEDBACK_FRAME_PERIOD_MS = 5;
+    private static final int HISTORY_SIZE = 64;
+    /** Disagreement with the other modules, as a speed, that counts as slip */
+    private static final double SLIP_SPEED = 0.35;  // m/s
+    private static final double SLIP_HOLD_TIME = 0.1;
+    /**
+     * Passes slip is judged over. A stale CAN frame shows up as one short
+     * delta followed by a long one, a window lets those cancel out.
+     */
+    private static final int SLIP_WINDOW = 4;
+
+    /**
+     * Pose estimate at a point in time
+     */
+    public static class OdometrySample {
+        public final double timestamp;
+        public final Pose2d pose;
+
+        OdometrySample(double timestamp, Pose2d pose) {
+            this.timestamp = timestamp;
+            this.pose = pose;
+        }
+    }
+
+    private static class ResetRequest {
+        final Pose2d pose;
+        final Rotation2d gyroAngle;
+        final long sequence;
+
+        ResetRequest(Pose2d pose, Rotation2d gyroAngle, long sequence) {
+            this.pose = pose;
+            this.gyroAngle = gyroAngle;
+            this.sequence = sequence;
+        }
+    }
+
+    private final Translation2d[] locations;
+    private final SwerveModule[] modules;
+    private final TalonFX[] driveMotors;
+    private final BSGyro gyro;
+    private final Notifier notifier;
+
+    // Published state, only written while holding publishLock
+    private final Object publishLock = new Object();
+    private volatile OdometrySample latest;
+    private final AtomicReferenceArray<OdometrySample> history = new AtomicReferenceArray<>(HISTORY_SIZE);
+    private volatile long sampleCount = 0;
+    private volatile int slippingModules = 0;
+    private volatile int slipEvents = 0;
+    private volatile boolean uncertain = false;
+    private final AtomicReference<ResetRequest> pendingReset = new AtomicReference<>();
+    /** Bumped by every reset, a pass computed under an older one isn't published */
+    private long resetSequence = 0;
+
+    // Thread local integration state
+    private final double[] lastPositions = new double[4];
+    private final double[] translationX = new double[4];
+    private final double[] translationY = new double[4];
+    private final double[][] windowX = new double[4][SLIP_WINDOW];
+    private final double[][] windowY = new double[4][SLIP_WINDOW];
+    private final double[] windowTime = new double[SLIP_WINDOW];
+    private int windowIndex = 0;
+    private final double[] movedX = new double[4];
+    private final double[] movedY = new double[4];
+    private final double[] slipUntil = new double[4];
+    private double lastUpdate;
+    private Pose2d pose = new Pose2d();
+    private Rotation2d gyroOffset = new Rotation2d();
+    private Rotation2d lastHeading = new Rotation2d();
+    private long appliedSequence = 0;
+
+    /**
+     * @param locations   module locations relative to the robot center, FL, FR, RL, RR
+     * @param modules     modules in the same order
+     * @param driveMotors drive motors of the modules in the same order
+     * @param steerMotors steer motors of the modules in the same order
+     */
+    public SwerveOdometryThread(Translation2d[] locations, SwerveModule[] modules,
+            TalonFX[] driveMotors, TalonFX[] steerMotors, BSGyro gyro) {
+        this.locations = locations;
+        this.modules = modules;
+        this.driveMotors = driveMotors;
+        this.gyro = gyro;
+
+        for (int i = 0; i < 4; i++) {
+            driveMotors[i].setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, FEEDBACK_FRAME_PERIOD_MS);
+            steerMotors[i].setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, FEEDBACK_FRAME_PERIOD_MS);
+            lastPositions[i] = driveMotors[i].getSelectedSensorPosition() * DrivetrainSubsystem.DRIVE_METERS_PER_TICK;
+        }
+        gyro.setUpdatePeriodMs(FEEDBACK_FRAME_PERIOD_MS);
+
+        lastHeading = gyro.getGyroscopeRotation();
+        pose = new Pose2d(0, 0, lastHeading);
+        lastUpdate = Timer.getFPGATimestamp();
+        publish(lastUpdate, pose);
+
+        notifier = new Notifier(this::update);
+        notifier.setName("SwerveOdometry");
+        notifier.startPeriodic(PERIOD_SECONDS);
+    }
+
+    /**
+     * Latest pose estimate, never blocks
+     */
+    public Pose2d getPose() {
+        return latest.pose;
+    }
+
+    public OdometrySample getLatestSample() {
+        return latest;
+    }
+
+    /**
+     * Returns the newest sample taken at or before the timestamp, or the oldest
+     * sample still in the buffer if the timestamp is older than that.
+     */
+    public OdometrySample getSampleAt(double timestamp) {
+        long newest = sampleCount - 1;
+        long oldest = Math.max(0, newest - HISTORY_SIZE + 2);  // leave a slot of slack for the writer
+        OdometrySample result = latest;
+        for (long i = newest; i >= oldest; i--) {
+            OdometrySample sample = history.get((int) (i % HISTORY_SIZE));
+            if (sample == null) {
+                break;
+            }
+            result = sample;
+            if (sample.timestamp <= timestamp) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Modules currently excluded for slip, bit 0 FL, 1 FR, 2 RL, 3 RR
+     */
+    public int getSlippingModules() {
+        return slippingModules;
+    }
+
+    public int getSlipEventCount() {
+        return slipEvents;
+    }
+
+    /**
+     * Flags the pose as no longer trustworthy, e.g. after a collision. Stays
+     * set until the pose is reset.
+     */
+    public void markUncertain() {
+        uncertain = true;
+    }
+
+    public boolean isPoseUncertain() {
+        return uncertain;
+    }
+
+    /**
+     * Resets the pose. The gyro angle is the reading that corresponds to the
+     * pose's rotation. Applied by the odometry thread on its next pass, the new
+     * pose is visible to readers immediately.
+     */
+    public void resetPose(Pose2d pose, Rotation2d gyroAngle) {
+        synchronized (publishLock) {
+            resetSequence++;
+            pendingReset.set(new ResetRequest(pose, gyroAngle, resetSequence));
+            uncertain = false;
+            publish(Timer.getFPGATimestamp(), pose);
+        }
+    }
+
+    private void update() {
+        final double now = Timer.getFPGATimestamp();
+
+        ResetRequest reset = pendingReset.getAndSet(null);
+        if (reset != null) {
+            pose = reset.pose;
+            gyroOffset = reset.pose.getRotation().minus(reset.gyroAngle);
+            lastHeading = reset.pose.getRotation();
+            appliedSequence = reset.sequence;
+
+            // Motion from before the reset says nothing about slip after it
+            for (int i = 0; i < 4; i++) {
+                Arrays.fill(windowX[i], 0.0);
+                Arrays.fill(windowY[i], 0.0);
+            }
+            Arrays.fill(windowTime, 0.0);
+            Arrays.fill(slipUntil, 0.0);
+            windowIndex = 0;
+        }
+
+        Rotation2d heading = gyro.getGyroscopeRotation().plus(gyroOffset);
+        double dTheta = heading.minus(lastHeading).getRadians();
+        double dt = Math.max(now - lastUpdate, 1e-3);
+        lastUpdate = now;
+
+        // Chassis translation implied by each module once the rotation is removed
+        for (int i = 0; i < 4; i++) {
+            double position = driveMotors[i].getSelectedSensorPosition() * DrivetrainSubsystem.DRIVE_METERS_PER_TICK;
+            double distance = position - lastPositions[i];
+            double angle = modules[i].getSteerAngle();
+            lastPositions[i] = position;
+
+            translationX[i] = distance * Math.cos(angle) + dTheta * locations[i].getY();
+            translationY[i] = distance * Math.sin(angle) - dTheta * locations[i].getX();
+        }
+
+        windowTime[windowIndex] = dt;
+        for (int i = 0; i < 4; i++) {
+            windowX[i][windowIndex] = translationX[i];
+            windowY[i][windowIndex] = translationY[i];
+        }
+        windowIndex = (windowIndex + 1) % SLIP_WINDOW;
+
+        double elapsed = 0;
+        Arrays.fill(movedX, 0.0);
+        Arrays.fill(movedY, 0.0);
+        for (int w = 0; w < SLIP_WINDOW; w++) {
+            elapsed += windowTime[w];
+            for (int i = 0; i < 4; i++) {
+                movedX[i] += windowX[i][w];
+                movedY[i] += windowY[i][w];
+            }
+        }
+        int disagreeing = findDisagreeing(movedX, movedY, elapsed);
+        int slipping = 0;
+        for (int i = 0; i < 4; i++) {
+            if ((disagreeing & (1 << i)) != 0) {
+                if (now >= slipUntil[i]) {
+                    slipEvents++;
+                }
+                slipUntil[i] = now + SLIP_HOLD_TIME;
+            }
+            if (now < slipUntil[i]) {
+                slipping |= 1 << i;
+            }
+        }
+        slippingModules = slipping;
+
+        // With more than two modules out there's no trustworthy majority, use them all
+        boolean useAll = Integer.bitCount(slipping) > 2;
+        int used = 0;
+        double dx = 0;
+        double dy = 0;
+        for (int i = 0; i < 4; i++) {
+            if (useAll || (slipping & (1 << i)) == 0) {
+                dx += translationX[i];
+                dy += translationY[i];
+                used++;
+            }
+        }
+        dx /= used;
+        dy /= used;
+
+        Pose2d newPose = pose.exp(new Twist2d(dx, dy, dTheta));
+
+        lastHeading = heading;
+        pose = new Pose2d(newPose.getTranslation(), heading);
+        synchronized (publishLock) {
+            // A reset landed while this pass ran, its pose stands until the next pass applies it
+            if (appliedSequence == resetSequence) {
+                publish(now, pose);
+            }
+        }
+    }
+
+    /**
+     * Modules whose translation over the window disagrees with the others by
+     * more than SLIP_SPEED. The reference is the per axis median of all four,
+     * a single slipping module can't drag it along the way it would a mean.
+     *
+     * @return bit 0 FL, 1 FR, 2 RL, 3 RR
+     */
+    static int findDisagreeing(double[] movedX, double[] movedY, double elapsed) {
+        double referenceX = median(movedX);
+        double referenceY = median(movedY);
+        int disagreeing = 0;
+        for (int i = 0; i < 4; i++) {
+            double disagreement = Math.hypot(movedX[i] - referenceX, movedY[i] - referenceY) / elapsed;
+            if (disagreement > SLIP_SPEED) {
+                disagreeing |= 1 << i;
+            }
+        }
+        return disagreeing;
+    }
+
+    /**
+     * Median of four values, the mean of the middle two
+     */
+    private static double median(double[] values) {
+        double min = Math.min(Math.min(values[0], values[1]), Math.min(values[2], values[3]));
+        double max = Math.max(Math.max(values[0], values[1]), Math.max(values[2], values[3]));
+        return (values[0] + values[1] + values[2] + values[3] - min - max) / 2.0;
+    }
+
+    private void publish(double timestamp, Pose2d pose) {
+        OdometrySample sample = new OdometrySample(timestamp, pose);
+        history.set((int) (sampleCount % HISTORY_SIZE), sample);
+        sampleCount++;
+        latest = sample;
+    }
+}
@@ -0,0 +1,164 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Turns requested chassis speeds into module states the modules can actually
+ * follow this cycle.
+ *
+ * Module velocities are linear in chassis speeds, so moving the chassis a
+ * fraction s of the way from the last setpoint to the request moves every
+ * module's velocity vector the same fraction of the way. We pick the largest s
+ * that keeps every module within its drive acceleration limit and its steering
+ * rate limit, which keeps the direction of travel of the whole robot intact
+ * while limiting the module that has the furthest to go.
+ *
+ * Modules that are nearly stopped can turn in place and are exempt from the
+ * steering limit. Drive speed is also scaled by the cosine of each module's
+ * steering error so a module still turning does not push the robot sideways.
+ */
+public class SwerveSetpointGenerator {
+    /** Traction limited, higher than this and the wheels break loose */
+    public static final double MAX_MODULE_ACCELERATION = 7.0;   // m/s^2
+    public static final double MAX_STEER_RATE = 4.0 * Math.PI;  // rad/s
+    /** Below this a module is considered stopped and may pivot freely */
+    private static final double STOPPED_SPEED = 0.05;           // m/s
+    private static final int STEER_SEARCH_ITERATIONS = 8;
+
+    private final SwerveDriveKinematics kinematics;
+    private final double maxSpeed;
+
+    private double accelerationScale = 1.0;
+    private ChassisSpeeds lastSpeeds = new ChassisSpeeds();
+    private final SwerveModuleState[] lastStates = new SwerveModuleState[4];
+
+    public SwerveSetpointGenerator(SwerveDriveKinematics kinematics, double maxSpeed) {
+        this.kinematics = kinematics;
+        this.maxSpeed = maxSpeed;
+        for (int i = 0; i < lastStates.length; i++) {
+            lastStates[i] = new SwerveModuleState();
+        }
+    }
+
+    /**
+     * Scales the drive acceleration limit, 1.0 is the normal limit
+     */
+    public void setAccelerationScale(double scale) {
+        this.accelerationScale = Math.max(0.0, Math.min(1.0, scale));
+    }
+
+    public double getAccelerationScale() {
+        return accelerationScale;
+    }
+
+    /**
+     * Restarts limiting from the given speeds, e.g. the measured speeds while disabled
+     */
+    public void reset(ChassisSpeeds speeds, double[] steerAngles) {
+        lastSpeeds = speeds;
+        SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds);
+        for (int i = 0; i < lastStates.length; i++) {
+            lastStates[i] = new SwerveModuleState(states[i].speedMetersPerSecond, new Rotation2d(steerAngles[i]));
+        }
+    }
+
+    /**
+     * @param desired     requested robot relative speeds
+     * @param steerAngles measured module angles in radians, FL, FR, RL, RR
+     * @param dt          seconds since the last call
+     * @return module states to command
+     */
+    public SwerveModuleState[] generate(ChassisSpeeds desired, double[] steerAngles, double dt) {
+        SwerveModuleState[] target = kinematics.toSwerveModuleStates(desired);
+        SwerveDriveKinematics.desaturateWheelSpeeds(target, maxSpeed);
+        desired = kinematics.toChassisSpeeds(target);
+
+        double maxDelta = MAX_MODULE_ACCELERATION * accelerationScale * dt;
+        double maxSteer = MAX_STEER_RATE * dt;
+
+        double s = 1.0;
+        for (int i = 0; i < 4; i++) {
+            double fromX = vx(lastStates[i]);
+            double fromY = vy(lastStates[i]);
+            double toX = vx(target[i]);
+            double toY = vy(target[i]);
+
+            double change = Math.hypot(toX - fromX, toY - fromY);
+            if (change > maxDelta) {
+                s = Math.min(s, maxDelta / change);
+            }
+
+            if (Math.abs(lastStates[i].speedMetersPerSecond) > STOPPED_SPEED) {
+                s = Math.min(s, steerLimit(lastStates[i].angle.getRadians(), fromX, fromY, toX, toY, s, maxSteer));
+            }
+        }
+
+        ChassisSpeeds limited = new ChassisSpeeds(
+            lastSpeeds.vxMetersPerSecond + s * (desired.vxMetersPerSecond - lastSpeeds.vxMetersPerSecond),
+            lastSpeeds.vyMetersPerSecond + s * (desired.vyMetersPerSecond - lastSpeeds.vyMetersPerSecond),
+            lastSpeeds.omegaRadiansPerSecond + s * (desired.omegaRadiansPerSecond - lastSpeeds.omegaRadiansPerSecond));
+        SwerveModuleState[] states = kinematics.toSwerveModuleStates(limited);
+
+        SwerveModuleState[] output = new SwerveModuleState[4];
+        for (int i = 0; i < 4; i++) {
+            if (Math.abs(states[i].speedMetersPerSecond) < 1e-6) {
+                // Hold the last angle instead of snapping the wheel back to zero
+                states[i] = new SwerveModuleState(0.0, lastStates[i].angle);
+            }
+            lastStates[i] = states[i];
+
+            // The module flips its drive direction for errors over 90 degrees, so
+            // the useful component is |cos| of the error
+            double error = states[i].angle.getRadians() - steerAngles[i];
+            output[i] = new SwerveModuleState(
+                states[i].speedMetersPerSecond * Math.abs(Math.cos(error)),
+                states[i].angle);
+        }
+        lastSpeeds = limited;
+        return output;
+    }
+
+    /**
+     * Largest fraction up to maxS that keeps the module heading change within
+     * maxSteer. Treats headings 180 degrees apart as equal since the module can
+     * reverse its drive instead of turning.
+     */
+    private static double steerLimit(double fromAngle, double fromX, double fromY, double toX, double toY,
+            double maxS, double maxSteer) {
+        if (steerChange(fromAngle, fromX, fromY, toX, toY, maxS) <= maxSteer) {
+            return maxS;
+        }
+        double low = 0.0;
+        double high = maxS;
+        for (int i = 0; i < STEER_SEARCH_ITERATIONS; i++) {
+            double mid = (low + high) / 2.0;
+            if (steerChange(fromAngle, fromX, fromY, toX, toY, mid) <= maxSteer) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double steerChange(double fromAngle, double fromX, double fromY, double toX, double toY, double s) {
+        double x = fromX + s * (toX - fromX);
+        double y = fromY + s * (toY - fromY);
+        if (Math.hypot(x, y) < STOPPED_SPEED) {
+            return 0.0;
+        }
+        double diff = Math.IEEEremainder(Math.atan2(y, x) - fromAngle, Math.PI);
+        return Math.abs(diff);
+    }
+
+    private static double vx(SwerveModuleState state) {
+        return state.speedMetersPerSecond * state.angle.getCos();
+    }
+
+    private static double vy(SwerveModuleState state) {
+        return state.speedMetersPerSecond * state.angle.getSin();
+    }
+}
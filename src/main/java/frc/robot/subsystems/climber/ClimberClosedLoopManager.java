@@ -6,6 +6,7 @@ import com.revrobotics.SparkMaxPIDController;
 
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.util.MotorConfigQueue;
 
 /** Add your docs here. */
 public class ClimberClosedLoopManager {
@@ -62,37 +63,44 @@ public class ClimberClosedLoopManager {
         double max = SmartDashboard.getNumber("Climber/Closed/Max Output", 0);
         double min = SmartDashboard.getNumber("Climber/Closed/Min Output", 0);
 
+        var configQueue = MotorConfigQueue.getInstance();
         if ((p != kP)) {
-            m_pidController.setP(p);
+            configQueue.enqueueRev("Climber/P", () -> m_pidController.setP(p));
             kP = p;
           }
           if ((i != kI)) {
-            m_pidController.setI(i);
+            configQueue.enqueueRev("Climber/I", () -> m_pidController.setI(i));
             kI = i;
           }
           if ((d != kD)) {
-            m_pidController.setD(d);
+            configQueue.enqueueRev("Climber/D", () -> m_pidController.setD(d));
             kD = d;
           }
           if ((iz != kIz)) {
-            m_pidController.setIZone(iz);
+            configQueue.enqueueRev("Climber/IZone", () -> m_pidController.setIZone(iz));
             kIz = iz;
           }
           if ((ff != kFF)) {
-            m_pidController.setFF(ff);
+            configQueue.enqueueRev("Climber/FF", () -> m_pidController.setFF(ff));
             kFF = ff;
           }
           if ((max != kMaxOutput) || (min != kMinOutput)) {
-            m_pidController.setOutputRange(min, max);
+            configQueue.enqueueRev("Climber/OutputRange", () -> m_pidController.setOutputRange(min, max));
             kMinOutput = min;
             kMaxOutput = max;
           }
         }
-        m_pidController.setP(kP);
         var profile = new TrapezoidProfile(contraints, goal, setpoint);
         setpoint = profile.calculate(0.2);  // look one scan ahead
 
         m_pidController.setReference(setpoint.position, CANSparkMax.ControlType.kPosition);
     }
 
+    /**
+     * Whether the profile is still on its way to the target
+     */
+    public boolean isMoving() {
+      return !setpoint.equals(goal);
+    }
+
 }
@@ -16,7 +16,12 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Subsystems;
+import frc.robot.subsystems.CANBandwidthManager;
+import frc.robot.subsystems.CANBandwidthManager.Mode;
 import frc.robot.subsystems.Lifecycle;
+import frc.robot.subsystems.MotorAnomalyMonitor;
+import frc.robot.subsystems.DMS.MotorHealth;
+import frc.robot.util.MotorConfigQueue;
 
 public class ClimberSubsystem extends SubsystemBase implements Lifecycle{
 
@@ -47,8 +52,15 @@ public class ClimberSubsystem extends SubsystemBase implements Lifecycle{
     }
   }
 
+  /** Current above which a held climber is carrying the robot */
+  private static final double LOADED_CURRENT = 20.0;
+
   // Control targets
   private double openLoopValue = 0.0;
+  private boolean dmsMode = false;
+
+  private CANBandwidthManager.Controller<PeriodicFrame> climberFrames;
+  private CANBandwidthManager.Controller<PeriodicFrame> followerFrames;
 
   public ClimberSubsystem() {
     climberMotor.restoreFactoryDefaults();
@@ -57,9 +69,6 @@ public class ClimberSubsystem extends SubsystemBase implements Lifecycle{
     followerMotor.setIdleMode(IdleMode.kBrake);
     followerMotor.follow(climberMotor, true);
 
-    // Increase follower updates
-    // climberMotor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 5);
-
     enableLimitSwitches();
     moveSolenoidsBackward();
 
@@ -182,6 +191,79 @@ public class ClimberSubsystem extends SubsystemBase implements Lifecycle{
     SmartDashboard.putNumber("Climber/FVel", followerMotor.getEncoder().getVelocity());
   }
 
+  /**
+   * Whether the climber is moving or carrying the robot. Holding a position
+   * with nothing on the hooks doesn't count, the climber sits in closed loop
+   * for the rest of the match after any move.
+   */
+  public boolean isClimbing() {
+    if (dmsMode) {
+      return false;
+    }
+    if (runState == RunState.OpenLoop) {
+      return openLoopValue != 0.0;
+    }
+    return closedLoopManager.isMoving() || climberMotor.getOutputCurrent() > LOADED_CURRENT;
+  }
+
+  public void setDmsMode(boolean mode) {
+    this.dmsMode = mode;
+    this.openLoopValue = 0.0;
+    this.runState = RunState.OpenLoop;
+  }
+
+  /**
+   * Smart current limit of both climber motors, set by the PowerManager
+   */
+  public void setCurrentLimit(double amps) {
+    var configQueue = MotorConfigQueue.getInstance();
+    configQueue.enqueueRev("Climber/CurrentLimit", () -> climberMotor.setSmartCurrentLimit((int) amps));
+    configQueue.enqueueRev("Climber/Follower/CurrentLimit", () -> followerMotor.setSmartCurrentLimit((int) amps));
+  }
+
+  /**
+   * The follower tracks the leader's Status0 frames, they go faster while
+   * climbing along with the leader's position
+   */
+  public void addCANFrames(CANBandwidthManager manager) {
+    climberFrames = manager.spark("Climber", climberMotor)
+      .frame(PeriodicFrame.kStatus0, 10, 5, Mode.Climbing)
+      .frame(PeriodicFrame.kStatus1, 100, 20, Mode.Climbing, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 100, 10, Mode.Climbing);
+    followerFrames = manager.spark("Climber/Follower", followerMotor)
+      .frame(PeriodicFrame.kStatus0, 100)
+      .frame(PeriodicFrame.kStatus1, 500, 20, Mode.Climbing, Mode.Diagnostics)
+      .frame(PeriodicFrame.kStatus2, 500);
+  }
+
+  /**
+   * Pulling the robot up is slow and heavy, so the climber only counts as
+   * stalled when it sits near full current
+   */
+  public void addMotorMonitors(MotorAnomalyMonitor monitor) {
+    var climber = monitor.add("Climber", climberMotor::getOutputCurrent,
+        () -> climberMotor.getEncoder().getVelocity(), climberMotor::getMotorTemperature)
+      .stall(60, 50, 2.0)
+      .velocityFrame(() -> climberFrames.getActivePeriod(PeriodicFrame.kStatus1));
+    monitor.add("ClimberFollower", followerMotor::getOutputCurrent,
+        () -> followerMotor.getEncoder().getVelocity(), followerMotor::getMotorTemperature)
+      .stall(60, 50, 2.0)
+      .velocityFrame(() -> followerFrames.getActivePeriod(PeriodicFrame.kStatus1))
+      .follows(climber, 200);
+  }
+
+  /**
+   * Extends partway and pulls back the same time, start with the climber
+   * retracted and clear of the bar
+   */
+  public MotorHealth createMotorHealth() {
+    return new MotorHealth("Climber", this::setDmsMode, climberMotor::set)
+      .leader(climberMotor::getOutputCurrent, () -> climberMotor.getEncoder().getVelocity())
+      .follower(followerMotor::getOutputCurrent, () -> followerMotor.getEncoder().getVelocity())
+      .step(-0.2, 1.5)
+      .step(0.2, 1.5);
+  }
+
   public void zeroClimberEncoder() {
     this.runState = RunState.OpenLoop;
     this.openLoopValue = 0.0;
@@ -198,6 +280,9 @@ public class ClimberSubsystem extends SubsystemBase implements Lifecycle{
     }
 
     displayTelemetry();
+    if (dmsMode) {
+      return;
+    }
     if (runState == RunState.OpenLoop) {
       this.climberMotor.set(openLoopValue);
     } else {
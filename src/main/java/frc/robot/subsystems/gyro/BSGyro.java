@@ -26,4 +26,51 @@ public interface BSGyro {
     void zeroGyroscope();
 
     public void setGyroOffset(double offsetDegrees);
+
+    /**
+     * Publishes readings for debugging. Call from the robot loop, rotation is
+     * read much faster by odometry.
+     */
+    default void updateDashboard() {
+    }
+
+    /**
+     * Requests yaw updates at the given period, for gyros that stream over CAN.
+     * 
+     * @param periodMs
+     */
+    default void setUpdatePeriodMs(int periodMs) {
+    }
+
+    /**
+     * Pitch in degrees, nose up positive. Zero for gyros that only measure yaw.
+     */
+    default double getPitch() {
+        return 0.0;
+    }
+
+    /**
+     * Roll in degrees. Zero for gyros that only measure yaw.
+     */
+    default double getRoll() {
+        return 0.0;
+    }
+
+    /**
+     * Reads the accelerometer, including gravity, in g.
+     * 
+     * @param xyz filled with the x, y and z acceleration
+     * @return false if the gyro has no accelerometer or the read failed
+     */
+    default boolean getAcceleration(double[] xyz) {
+        return false;
+    }
+
+    /**
+     * Requests accelerometer updates at the given period, for gyros that stream over CAN.
+     * 
+     * @param periodMs
+     */
+    default void setAccelerometerPeriodMs(int periodMs) {
+    }
 }
@@ -1,5 +1,7 @@
 package frc.robot.subsystems.gyro;
 
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 import com.ctre.phoenix.sensors.WPI_Pigeon2;
 
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -9,7 +11,8 @@ public class PigeonGyro implements BSGyro {
     // private final Pigeon2 m_pigeon;
     private final WPI_Pigeon2 m_pigeon;
     private double[] ypr = new double[3];
-    private double offset = 0.0;
+    private final short[] accel = new short[3];
+    private volatile double offset = 0.0;  // read from the odometry thread
 
     public PigeonGyro(int CAN_ID) {
         m_pigeon = new WPI_Pigeon2(CAN_ID);
@@ -25,13 +28,16 @@ public class PigeonGyro implements BSGyro {
         } else if (degrees > 180.0) {
             degrees -= 360.0;
         }
-        SmartDashboard.putNumber("PigeonGyro/Base", m_pigeon.getYaw());
-        SmartDashboard.putNumber("PigeonGyro/Adjusted", degrees+offset);
-
         return Rotation2d.fromDegrees(degrees);
         // return Rotation2d.fromDegrees(m_pigeon.getYaw());
     }
 
+    @Override
+    public void updateDashboard() {
+        SmartDashboard.putNumber("PigeonGyro/Base", m_pigeon.getYaw());
+        SmartDashboard.putNumber("PigeonGyro/Adjusted", getGyroscopeRotation().getDegrees());
+    }
+
     @Override
     public void zeroGyroscope() {
         m_pigeon.setYaw(0.0);
@@ -44,4 +50,36 @@ public class PigeonGyro implements BSGyro {
         this.offset = offsetDegrees;
         SmartDashboard.putNumber("PigeonGyro/Offset", offsetDegrees);
     }
+
+    @Override
+    public void setUpdatePeriodMs(int periodMs) {
+        m_pigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, periodMs);
+    }
+
+    @Override
+    public double getPitch() {
+        return m_pigeon.getPitch();
+    }
+
+    @Override
+    public double getRoll() {
+        return m_pigeon.getRoll();
+    }
+
+    @Override
+    public boolean getAcceleration(double[] xyz) {
+        // Q2.14 fixed point, 16384 = 1g
+        if (m_pigeon.getBiasedAccelerometer(accel) != ErrorCode.OK) {
+            return false;
+        }
+        xyz[0] = accel[0] / 16384.0;
+        xyz[1] = accel[1] / 16384.0;
+        xyz[2] = accel[2] / 16384.0;
+        return true;
+    }
+
+    @Override
+    public void setAccelerometerPeriodMs(int periodMs) {
+        m_pigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.BiasedStatus_6_Accel, periodMs);
+    }
 }
\ No newline at end of file
@@ -11,11 +11,15 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Subsystems;
+import frc.robot.subsystems.CANBandwidthManager;
 import frc.robot.subsystems.Lifecycle;
+import frc.robot.subsystems.MotorAnomalyMonitor;
 import frc.robot.subsystems.ShooterSubsystem;
 import frc.robot.subsystems.ShooterSubsystem.ShooterProfile;
+import frc.robot.subsystems.DMS.MotorHealth;
 import frc.robot.subsystems.vision.Limelight.LEDMode;
 import frc.robot.subsystems.vision.VisionSubsystem.VisionInfo;
+import frc.robot.util.MotorConfigQueue;
 
 public class TurretSubsystem extends SubsystemBase implements Lifecycle{
   private final CANSparkMax turretMotor = new CANSparkMax(Constants.TURRET_MOTOR_ID, MotorType.kBrushless);
@@ -39,6 +43,7 @@ public class TurretSubsystem extends SubsystemBase implements Lifecycle{
 
   private RunState runState = RunState.OpenLoop;
   private double openLoopSpeed = 0.0;
+  private boolean dmsMode = false;
 
   private double vision_kP = 0.015;
   private double vision_kI = 0.0;
@@ -166,6 +171,34 @@ public class TurretSubsystem extends SubsystemBase implements Lifecycle{
     return Math.abs(position) < TURRET_ZERO_THRESHOLD;
   }
 
+  public void setDmsMode(boolean mode) {
+    this.dmsMode = mode;
+  }
+
+  /**
+   * Aiming reads the turret position every cycle, so the defaults stay
+   */
+  public void addCANFrames(CANBandwidthManager manager) {
+    manager.spark("Turret", turretMotor);
+  }
+
+  public void addMotorMonitors(MotorAnomalyMonitor monitor) {
+    monitor.add("Turret", turretMotor::getOutputCurrent, () -> turretMotor.getEncoder().getVelocity(), turretMotor::getMotorTemperature)
+      .stall(20, 20, 1.0);
+  }
+
+  /**
+   * Swings a few rotations each way and back, start with the turret centered
+   * so it stays clear of the soft limits
+   */
+  public MotorHealth createMotorHealth() {
+    return new MotorHealth("Turret", this::setDmsMode, turretMotor::set)
+      .leader(turretMotor::getOutputCurrent, () -> turretMotor.getEncoder().getVelocity())
+      .step(0.05, 0.75)
+      .step(-0.05, 1.5)
+      .step(0.05, 0.75);
+  }
+
   public void enableBadBallDetection() { this.badBallDetectionEnabled = true; }
   public void disableBadBallDetection() { this.badBallDetectionEnabled = false; }
 
@@ -183,15 +216,18 @@ public class TurretSubsystem extends SubsystemBase implements Lifecycle{
 
     // System.out.println("[Turret] start runState: " + runState);
 
+    if (dmsMode) {
+      return;
+    }
+
     double speed = 0.0;
     if (runState == RunState.OpenLoop) {
       speed = openLoopSpeed;
     } else {
 
       if (badBallDetectionEnabled) {
-        if (Subsystems.detectBallSubsystem.isBallDetected() && 
-            this.mismatchBallDetectionEnabled && 
-            !Subsystems.detectBallSubsystem.doesBallMatchAlliance()) {
+        if (this.mismatchBallDetectionEnabled && 
+            Subsystems.ballTracker.isMismatchedBallQueued()) {
           setTurretPosition(TurretPositions.Center);
           positionPIDPeriodic();
           return;
@@ -293,17 +329,18 @@ public class TurretSubsystem extends SubsystemBase implements Lifecycle{
     double i = SmartDashboard.getNumber("Turret/Position/I", position_kI);
     double d = SmartDashboard.getNumber("Turret/Position/D", position_kD);
 
+    var configQueue = MotorConfigQueue.getInstance();
     if (position_kP != p) {
       position_kP = p;
-      positionPID.setP(position_kP);
+      configQueue.enqueueRev("Turret/P", () -> positionPID.setP(p));
     }
     if (position_kI != i) {
       position_kI = i;
-      positionPID.setI(position_kI);
+      configQueue.enqueueRev("Turret/I", () -> positionPID.setI(i));
     }
     if (position_kD != d) {
       position_kD = d;
-      positionPID.setD(position_kD);
+      configQueue.enqueueRev("Turret/D", () -> positionPID.setD(d));
     }
 
 
@@ -0,0 +1,37 @@
+package frc.robot.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.robot.auto.TrajectoryLibrary;
+import frc.robot.auto.TrajectoryLibrary.PathDefinition;
+
+/**
+ * Desktop tool that generates every path in the TrajectoryLibrary and writes
+ * the cache files that get deployed with the robot code.
+ *
+ * <pre>
+ *   ./gradlew generateTrajectories
+ * </pre>
+ *
+ * Runs off robot, must not touch WPILib classes that need the HAL.
+ */
+public class GenerateTrajectories {
+    public static void main(String[] args) throws IOException {
+        File directory = new File((args.length > 0) ? args[0] : "src/main/deploy/trajectories");
+
+        for (PathDefinition definition : TrajectoryLibrary.getDefinitions().values()) {
+            File file = TrajectoryLibrary.fileFor(directory, definition.name);
+            long signature = definition.signature();
+            if (TrajectoryLibrary.read(file, signature) != null) {
+                System.out.println(definition.name + ": up to date");
+                continue;
+            }
+            Trajectory trajectory = definition.generate();
+            TrajectoryLibrary.write(trajectory, file, signature);
+            System.out.println(definition.name + ": " + trajectory.getStates().size() + " states, " +
+                String.format("%.2f", trajectory.getTotalTimeSeconds()) + " s -> " + file);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package frc.robot.tools;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import frc.robot.util.LeastSquares;
+
+/**
+ * Desktop tool that refits the Dynamic shot table from robot shot logs.
+ *
+ * Pull the log off the robot and run the fitter, then paste the printed lines
+ * into src/main/deploy/bsprefs.csv and deploy:
+ *
+ * <pre>
+ *   scp lvuser@10.0.16.2:/home/lvuser/shots.csv .
+ *   ./gradlew fitShotTable --args="shots.csv"
+ * </pre>
+ *
+ * Only Dynamic profile shots the driver tagged as HIT are used. The fit is done
+ * on the RPM measured at release with the dashboard shot adjust removed, so the
+ * adjust sliders keep working on top of the new table.
+ *
+ * Runs off robot, must not touch WPILib classes.
+ */
+public class ShotTableFitter {
+    private static final int MIN_MIDDLE_SAMPLES = 4;
+    private static final int MIN_LONG_SAMPLES = 3;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ShotTableFitter <shots.csv> [more logs...]");
+            System.exit(1);
+        }
+
+        Map<String, Map<String, String>> shots = new LinkedHashMap<>();
+        Map<String, String> tags = new HashMap<>();
+        for (String filename : args) {
+            read(filename, shots, tags);
+        }
+
+        List<double[]> middle = new ArrayList<>();
+        List<double[]> longRange = new ArrayList<>();
+        int hits = 0;
+        int misses = 0;
+        int untagged = 0;
+
+        for (var entry : shots.entrySet()) {
+            var shot = entry.getValue();
+            String tag = tags.get(entry.getKey());
+            if (tag == null) {
+                untagged++;
+                continue;
+            } else if (!"HIT".equals(tag)) {
+                misses++;
+                continue;
+            }
+            hits++;
+
+            double distance = Double.parseDouble(shot.get("distance"));
+            double rpm = Double.parseDouble(shot.get("actualRPM")) / Double.parseDouble(shot.get("rpmAdjust"));
+            if (!"Dynamic".equals(shot.get("profile")) || distance <= 0) {
+                continue;
+            }
+            if ("Middle".equals(shot.get("range"))) {
+                middle.add(new double[] { distance, rpm });
+            } else if ("Long".equals(shot.get("range"))) {
+                longRange.add(new double[] { distance, rpm });
+            }
+        }
+
+        System.out.println("Shots: " + shots.size() + " | Hits: " + hits + " | Misses: " + misses + " | Untagged: " + untagged);
+        System.out.println();
+
+        if (middle.size() >= MIN_MIDDLE_SAMPLES) {
+            double[] x = column(middle, 0);
+            double[] y = column(middle, 1);
+            double[] c = LeastSquares.polyfit(x, y, 2);
+            System.out.println("# Middle: " + middle.size() + " hits, RMS error " + format(LeastSquares.rms(x, y, c)) + " RPM");
+            // Robot evaluates a*d^2 - b*d + c
+            System.out.println("ShotMidA," + c[2]);
+            System.out.println("ShotMidB," + -c[1]);
+            System.out.println("ShotMidC," + c[0]);
+        } else {
+            System.out.println("# Middle: only " + middle.size() + " hits, need " + MIN_MIDDLE_SAMPLES + ", keeping current table");
+        }
+
+        if (longRange.size() >= MIN_LONG_SAMPLES) {
+            double[] x = column(longRange, 0);
+            double[] y = column(longRange, 1);
+            double[] c = LeastSquares.polyfit(x, y, 1);
+            System.out.println("# Long: " + longRange.size() + " hits, RMS error " + format(LeastSquares.rms(x, y, c)) + " RPM");
+            System.out.println("ShotLongA," + c[1]);
+            System.out.println("ShotLongB," + c[0]);
+        } else {
+            System.out.println("# Long: only " + longRange.size() + " hits, need " + MIN_LONG_SAMPLES + ", keeping current table");
+        }
+    }
+
+    private static void read(String filename, Map<String, Map<String, String>> shots, Map<String, String> tags) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            String[] header = line.split(",", -1);
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length != header.length) {
+                    System.err.println("Skipping malformed line: " + line);
+                    continue;
+                }
+                Map<String, String> record = new HashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    record.put(header[i], parts[i]);
+                }
+                // Later tags for the same shot replace earlier ones
+                if ("shot".equals(record.get("type"))) {
+                    shots.put(record.get("id"), record);
+                } else if ("tag".equals(record.get("type"))) {
+                    tags.put(record.get("id"), record.get("result"));
+                }
+            }
+        }
+    }
+
+    private static double[] column(List<double[]> rows, int index) {
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rows.get(i)[index];
+        }
+        return values;
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
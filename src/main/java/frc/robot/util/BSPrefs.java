@@ -1,38 +1,84 @@
 package frc.robot.util;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 
 import edu.wpi.first.wpilibj.DriverStation;
 
+/**
+ * Key/value preferences kept in a CSV file.
+ *
+ * Values are stored as text and read back as double, int, boolean or string.
+ * Saving takes a snapshot on the caller's thread and writes it on a background
+ * thread, so commands that save from the robot loop don't wait on the disk.
+ *
+ * A save can't leave a half written file behind: the snapshot goes to a temp
+ * file that is synced and then renamed over the old file, and the previous
+ * good file is kept next to it as a .bak. Saved files end with a checksum
+ * line. A file whose checksum doesn't match or that can't be read is ignored
+ * in favor of the backup, and with neither every value reads as its default
+ * instead of stopping robot code. Files without a checksum line, like the
+ * deployed bsprefs.csv or hand edited ones, are accepted as they are.
+ */
 public class BSPrefs {
     private static final String PREFS_FILE = "/home/lvuser/deploy/bsprefs.csv";
     private static final String OFFSETS_FILE = "/home/lvuser/offsets.csv";
+    private static final String DMS_BASELINE_FILE = "/home/lvuser/dms_baselines.csv";
+    private static final String CHECKSUM_KEY = "#crc32";
+
     private static BSPrefs instance;
     private static BSPrefs offsetInstance;
-    
+    private static BSPrefs dmsBaselineInstance;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BSPrefsWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final String prefsFilename;
-    private final Map<String, Double> preferences = new HashMap<String, Double>();
+    /** Immutable, replaced as a whole on every change */
+    private volatile Map<String, String> preferences = Map.of();
+    private final List<Runnable> reloadListeners = new ArrayList<>();
 
     public static final BSPrefs getInstance() {
         if (instance == null) {
             instance =  new BSPrefs(PREFS_FILE);
         }
-        return instance; 
+        return instance;
     }
 
     public static final BSPrefs getOffsetsInstance() {
         if (offsetInstance == null) {
             offsetInstance =  new BSPrefs(OFFSETS_FILE);
         }
-        return offsetInstance; 
-    } 
+        return offsetInstance;
+    }
+
+    public static final BSPrefs getDmsBaselineInstance() {
+        if (dmsBaselineInstance == null) {
+            dmsBaselineInstance = new BSPrefs(DMS_BASELINE_FILE);
+        }
+        return dmsBaselineInstance;
+    }
 
     /**
      * Package visible for testing
@@ -40,47 +86,247 @@ public class BSPrefs {
      */
     BSPrefs(String filename) {
         this.prefsFilename = filename;
-        if (!new File(prefsFilename).exists()) {
-            savePreferences();
+        if (load(prefsFilename)) {
+            return;
+        }
+        if (load(backupFilename())) {
+            DriverStation.reportWarning("Preference file " + prefsFilename + " was damaged, loaded the backup", false);
+            return;
+        }
+        if (new File(prefsFilename).exists() || new File(backupFilename()).exists()) {
+            DriverStation.reportError("Unable to read preference file " + prefsFilename + ", using defaults", false);
+        }
+    }
+
+    private String backupFilename() {
+        return prefsFilename + ".bak";
+    }
+
+    /**
+     * Reads a preference file, only replacing the current values if the whole
+     * file is good
+     */
+    private boolean load(String filename) {
+        Path path = Path.of(filename);
+        if (!Files.exists(path)) {
+            return false;
         }
+        try {
+            Map<String, String> loaded = parse(Files.readString(path, StandardCharsets.UTF_8));
+            if (loaded == null) {
+                return false;
+            }
+            preferences = Map.copyOf(loaded);
+            return true;
+        } catch (IOException e) {
+            DriverStation.reportWarning("Unable to read " + filename + ": " + e.getMessage(), false);
+            return false;
+        }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(prefsFilename))) {
-            String key, value, line = null;
+    /**
+     * @return the values, or null if the checksum doesn't match
+     */
+    static Map<String, String> parse(String contents) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        CRC32 crc = new CRC32();
+        try (BufferedReader reader = new BufferedReader(new StringReader(contents))) {
+            String line;
             while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
+                String[] parts = line.split(",", 2);
+                if (parts.length == 2 && CHECKSUM_KEY.equals(parts[0].trim())) {
+                    return (Long.toHexString(crc.getValue()).equals(parts[1].trim())) ? values : null;
+                }
+                crc.update((line + "\n").getBytes(StandardCharsets.UTF_8));
+                if (line.isBlank()) {
+                    continue;
+                }
                 if (parts.length != 2) {
                     DriverStation.reportWarning("Unexpected preference entry: " + line, false);
                     continue;
                 }
-                key = parts[0].trim();
-                value = parts[1].trim();
-
-                preferences.put(key, Double.parseDouble(value));
+                values.put(parts[0].trim(), parts[1].trim());
             }
-        } catch (FileNotFoundException fne) {
-            DriverStation.reportError("Unable to find preference file: " + prefsFilename, true);
-        } catch (Exception e) {
-            DriverStation.reportError("Unexpected error reading preferences: " + e.getMessage(), true);
-            throw new RuntimeException("Aborting due to preference file failure", e);
         }
+        return values;
     }
 
     public double getDouble(String key, double defaultValue) {
-        return preferences.getOrDefault(key, defaultValue);
+        String value = get(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                DriverStation.reportWarning("Preference " + key + " is not a number: " + value, false);
+            }
+        }
+        return defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                DriverStation.reportWarning("Preference " + key + " is not an integer: " + value, false);
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        } else if (value != null) {
+            DriverStation.reportWarning("Preference " + key + " is not a boolean: " + value, false);
+        }
+        return defaultValue;
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = get(key);
+        return (value != null) ? value : defaultValue;
+    }
+
+    private String get(String key) {
+        return preferences.get(key);
     }
 
     public void setDouble(String key, double value) {
-        preferences.put(key, value);
+        set(key, String.valueOf(value));
+    }
+
+    public void setInt(String key, int value) {
+        set(key, String.valueOf(value));
+    }
+
+    public void setBoolean(String key, boolean value) {
+        set(key, String.valueOf(value));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value spans lines
+     */
+    public void setString(String key, String value) {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Preference values must be a single line: " + key);
+        }
+        set(key, value);
+    }
+
+    private void set(String key, String value) {
+        if (key.isBlank() || key.contains(",") || key.startsWith("#")) {
+            throw new IllegalArgumentException("Invalid preference key: " + key);
+        }
+        synchronized (this) {
+            Map<String, String> updated = new HashMap<>(preferences);
+            updated.put(key, value);
+            preferences = Map.copyOf(updated);
+        }
+    }
+
+    /**
+     * Picks up edits to the file while robot code runs. Values change between
+     * robot loops, then the reload listeners run on the main thread.
+     */
+    public void enableHotReload() {
+        enableHotReload(ConfigWatcher.getInstance());
+    }
+
+    /**
+     * Package visible for testing
+     */
+    void enableHotReload(ConfigWatcher watcher) {
+        watcher.watch(prefsFilename, BSPrefs::parse, this::reload);
     }
 
-    public void savePreferences() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(prefsFilename))) {
-            for (var prefEntry : preferences.entrySet()) {
-                writer.write(prefEntry.getKey() + "," + String.valueOf(prefEntry.getValue()) + "\n");
+    /**
+     * Runs on the main thread after the file has been reloaded, for values
+     * that are only read once
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    private void reload(Map<String, String> values) {
+        preferences = Map.copyOf(values);
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Writes the current values in the background. Saves complete in the
+     * order they were made.
+     *
+     * @return completes once the file is on disk, errors are reported to the
+     *         driver station rather than thrown
+     */
+    public CompletableFuture<Void> savePreferences() {
+        String contents = serialize();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(contents);
+            } catch (IOException e) {
+                DriverStation.reportError("Unexpected error writing preferences " + prefsFilename + ": " + e.getMessage(), false);
             }
-        } catch (Exception e) {
-            DriverStation.reportError("Unexpected error writing preferences: " + e.getMessage(), true);
-            throw new RuntimeException("Aborting due to preference file write error", e);
+        }, writer);
+    }
+
+    private String serialize() {
+        StringBuilder contents = new StringBuilder();
+        // Sorted so saved files diff cleanly
+        for (var prefEntry : new TreeMap<>(preferences).entrySet()) {
+            contents.append(prefEntry.getKey()).append(',').append(prefEntry.getValue()).append('\n');
+        }
+        CRC32 crc = new CRC32();
+        crc.update(contents.toString().getBytes(StandardCharsets.UTF_8));
+        contents.append(CHECKSUM_KEY).append(',').append(Long.toHexString(crc.getValue())).append('\n');
+        return contents.toString();
+    }
+
+    private void write(String contents) throws IOException {
+        Path target = Path.of(prefsFilename);
+        Path temp = Path.of(prefsFilename + ".tmp");
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            out.write(contents.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        // Only a file that still loads becomes the backup
+        if (isValid(target)) {
+            Files.copy(target, Path.of(backupFilename()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    private static boolean isValid(Path path) {
+        try {
+            return Files.exists(path) && parse(Files.readString(path, StandardCharsets.UTF_8)) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Makes the rename durable, not supported everywhere
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
         }
     }
 }
@@ -0,0 +1,214 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Reloads configuration files when they change on disk, so a tuning value can
+ * be copied to the robot without restarting robot code.
+ *
+ * A background thread watches the files' directories, waits for a changed
+ * file to settle, then reads and parses it off the robot loop. The parsed
+ * result is published as a snapshot and handed to the file's listener on the
+ * main thread the next time poll() runs, so listeners can touch subsystems
+ * and nobody ever sees a half applied file. A file that doesn't parse is
+ * reported and the last good snapshot stays in place.
+ */
+public class ConfigWatcher {
+    /** Quiet time after the last change before a file is read */
+    private static final long SETTLE_MS = 250;
+    private static final long POLL_MS = 100;
+
+    private static ConfigWatcher instance;
+
+    /**
+     * Parses a file's contents, returns null or throws to reject it
+     */
+    @FunctionalInterface
+    public interface Parser<T> {
+        T parse(String contents) throws IOException;
+    }
+
+    private static class WatchedFile<T> {
+        final Path path;
+        final Parser<T> parser;
+        final Consumer<T> listener;
+        /** Parsed snapshot waiting for the main thread */
+        final AtomicReference<T> pending = new AtomicReference<>();
+        String lastContents;
+        long changedAt = -1;
+
+        WatchedFile(Path path, Parser<T> parser, Consumer<T> listener) {
+            this.path = path;
+            this.parser = parser;
+            this.listener = listener;
+        }
+
+        void publish(String contents) {
+            try {
+                T snapshot = parser.parse(contents);
+                if (snapshot == null) {
+                    DriverStation.reportWarning("Ignoring damaged config file " + path, false);
+                    return;
+                }
+                pending.set(snapshot);
+                System.out.println("[ConfigWatcher] Reloaded " + path);
+            } catch (IOException | RuntimeException e) {
+                DriverStation.reportWarning("Ignoring unreadable config file " + path + ": " + e.getMessage(), false);
+            }
+        }
+
+        void deliver() {
+            T snapshot = pending.getAndSet(null);
+            if (snapshot != null) {
+                listener.accept(snapshot);
+            }
+        }
+    }
+
+    private final List<WatchedFile<?>> files = new CopyOnWriteArrayList<>();
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private WatchService watchService;
+
+    public static ConfigWatcher getInstance() {
+        if (instance == null) {
+            instance = new ConfigWatcher(true);
+        }
+        return instance;
+    }
+
+    /**
+     * Package visible for testing, without the watcher thread changes are
+     * only picked up through changed() and settle()
+     */
+    ConfigWatcher(boolean watchFiles) {
+        if (!watchFiles) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            DriverStation.reportError("Config files won't reload: " + e.getMessage(), false);
+            return;
+        }
+        Thread watcherThread = new Thread(this::watchLoop, "ConfigWatcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    /**
+     * Calls listener on the main thread with the parsed file every time it
+     * changes. The file's current contents count as loaded already.
+     */
+    public synchronized <T> void watch(String filename, Parser<T> parser, Consumer<T> listener) {
+        Path path = Path.of(filename).toAbsolutePath();
+        WatchedFile<T> file = new WatchedFile<>(path, parser, listener);
+        file.lastContents = read(path);
+        Path directory = path.getParent();
+        try {
+            if (watchService != null && !directories.containsKey(directory)) {
+                directories.put(directory, directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+            }
+            files.add(file);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Unable to watch " + path + ": " + e.getMessage(), false);
+        }
+    }
+
+    /**
+     * Hands reloaded snapshots to their listeners, call from robot periodic
+     */
+    public void poll() {
+        for (WatchedFile<?> file : files) {
+            file.deliver();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                long now = System.currentTimeMillis();
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            markAll(directory, now);
+                        } else {
+                            changed(directory.resolve((Path) event.context()), now);
+                        }
+                    }
+                    if (!key.reset()) {
+                        DriverStation.reportWarning("Stopped watching " + directory, false);
+                    }
+                }
+
+                settle(now);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads and publishes the files that have been quiet for SETTLE_MS since
+     * they last changed
+     */
+    void settle(long now) {
+        for (WatchedFile<?> file : files) {
+            if (file.changedAt >= 0 && now - file.changedAt >= SETTLE_MS) {
+                file.changedAt = -1;
+                String contents = read(file.path);
+                if (contents != null && !contents.equals(file.lastContents)) {
+                    file.lastContents = contents;
+                    file.publish(contents);
+                }
+            }
+        }
+    }
+
+    /**
+     * Notes that a file changed, it is read once it settles
+     */
+    void changed(Path path, long now) {
+        for (WatchedFile<?> file : files) {
+            if (file.path.equals(path)) {
+                file.changedAt = now;
+            }
+        }
+    }
+
+    private void markAll(Path directory, long now) {
+        for (WatchedFile<?> file : files) {
+            if (file.path.getParent().equals(directory)) {
+                file.changedAt = now;
+            }
+        }
+    }
+
+    private static String read(Path path) {
+        try {
+            return Files.exists(path) ? Files.readString(path, StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package frc.robot.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Append-only CSV log file on the RIO.
+ *
+ * Lines are queued by the caller and written out by a background thread so the
+ * robot loop never waits on the filesystem. Existing contents are never rewritten,
+ * the header is only written when the file is first created.
+ *
+ * The queue is bounded. Records that don't fit are dropped and counted, and once
+ * the writer gives up on the file every further record is dropped.
+ */
+public class CsvLog {
+    /** Records held while the writer catches up, well beyond a burst from one match */
+    private static final int MAX_PENDING = 4096;
+
+    private final String filename;
+    private final String header;
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private volatile boolean failed = false;
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    public CsvLog(String filename, String... columns) {
+        this.filename = filename;
+        this.header = String.join(",", columns);
+
+        Thread writerThread = new Thread(this::writeLoop, "CsvLog-" + new File(filename).getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues a single record, values are written in column order
+     */
+    public void log(Object... values) {
+        if (failed) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(values[i]);
+        }
+        if (!pending.offer(line.toString())) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Records dropped because the queue was full, not counting those dropped
+     * after the writer failed
+     */
+    public int getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * True once the file couldn't be written, log() does nothing from then on
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    private void writeLoop() {
+        boolean writeHeader = !new File(filename).exists() || new File(filename).length() == 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename, true))) {
+            if (writeHeader) {
+                writer.write(header);
+                writer.newLine();
+                writer.flush();
+            }
+            while (true) {
+                writer.write(pending.take());
+                writer.newLine();
+                // Drain anything else that queued up while we were blocked
+                String line;
+                while ((line = pending.poll()) != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            failed = true;
+            pending.clear();
+            DriverStation.reportError("Unable to write log file " + filename + ": " + e.getMessage(), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package frc.robot.util;
+
+/**
+ * Small ordinary least squares solver used for fitting tuning tables offline
+ * and on robot. Sample counts are small so normal equations are good enough.
+ */
+public class LeastSquares {
+
+    /**
+     * Solves for the coefficients b minimizing |Xb - y|
+     *
+     * @param x rows of regressors, one row per sample
+     * @param y observed values, one per sample
+     * @return coefficients, one per regressor column
+     */
+    public static double[] solve(double[][] x, double[] y) {
+        if (x.length == 0 || x.length != y.length) {
+            throw new IllegalArgumentException("Sample count mismatch: " + x.length + " rows, " + y.length + " values");
+        }
+        final int n = x[0].length;
+        double[][] a = new double[n][n + 1];
+
+        // Build augmented normal equations [X'X | X'y]
+        for (int row = 0; row < x.length; row++) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    a[i][j] += x[row][i] * x[row][j];
+                }
+                a[i][n] += x[row][i] * y[row];
+            }
+        }
+
+        // Gaussian elimination with partial pivoting
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(a[pivot][col]) < 1e-12) {
+                throw new IllegalArgumentException("Samples do not constrain coefficient " + col);
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+
+            for (int row = col + 1; row < n; row++) {
+                double factor = a[row][col] / a[col][col];
+                for (int k = col; k <= n; k++) {
+                    a[row][k] -= factor * a[col][k];
+                }
+            }
+        }
+
+        double[] result = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = a[i][n];
+            for (int j = i + 1; j < n; j++) {
+                sum -= a[i][j] * result[j];
+            }
+            result[i] = sum / a[i][i];
+        }
+        return result;
+    }
+
+    /**
+     * Fits y = c0 + c1*x + c2*x^2 ...
+     *
+     * @return coefficients ordered from constant term upwards
+     */
+    public static double[] polyfit(double[] x, double[] y, int degree) {
+        double[][] rows = new double[x.length][degree + 1];
+        for (int i = 0; i < x.length; i++) {
+            double term = 1.0;
+            for (int p = 0; p <= degree; p++) {
+                rows[i][p] = term;
+                term *= x[i];
+            }
+        }
+        return solve(rows, y);
+    }
+
+    /**
+     * Root mean square of the residuals for a polynomial fit
+     */
+    public static double rms(double[] x, double[] y, double[] coefficients) {
+        double sum = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            double predicted = 0.0;
+            double term = 1.0;
+            for (double c : coefficients) {
+                predicted += c * term;
+                term *= x[i];
+            }
+            sum += (y[i] - predicted) * (y[i] - predicted);
+        }
+        return Math.sqrt(sum / x.length);
+    }
+}
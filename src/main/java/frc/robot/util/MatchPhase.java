@@ -0,0 +1,28 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Coarse match phase for anything that changes priorities over a match
+ */
+public enum MatchPhase {
+    Disabled, Auto, Teleop, Endgame;
+
+    /** Teleop time remaining when the endgame starts */
+    public static final double ENDGAME_TIME = 30.0;
+
+    public static MatchPhase current() {
+        if (DriverStation.isDisabled()) {
+            return Disabled;
+        }
+        if (DriverStation.isAutonomous()) {
+            return Auto;
+        }
+        double matchTime = DriverStation.getMatchTime();
+        // Match time is -1 when practicing without a field or FMS
+        if (DriverStation.isTeleop() && matchTime >= 0 && matchTime <= ENDGAME_TIME) {
+            return Endgame;
+        }
+        return Teleop;
+    }
+}
@@ -0,0 +1,153 @@
+package frc.robot.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix.ErrorCode;
+import com.revrobotics.REVLibError;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Deferred motor controller configuration writes.
+ *
+ * Parameter writes to SparkMax and TalonFX controllers (gains, output range,
+ * soft limits, status frame periods, idle mode, ...) wait for the controller
+ * to acknowledge and can block for milliseconds. Anything changed at runtime
+ * should be queued here instead of written from periodic; a background thread
+ * drains the queue at a bounded rate so the CAN bus is not flooded.
+ *
+ * Writes are keyed, queuing a key that is still pending replaces the old write
+ * so only the latest value for a parameter is ever sent.
+ *
+ * Constructor time configuration can stay synchronous.
+ */
+public class MotorConfigQueue {
+    /** Minimum time between writes, bounds the config traffic we add to the bus */
+    private static final long WRITE_INTERVAL_MS = 5;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static MotorConfigQueue instance;
+
+    private final Map<String, ConfigWrite> pending = new LinkedHashMap<>();
+    private int completed = 0;
+    private int failed = 0;
+
+    private static class ConfigWrite {
+        final String key;
+        final Supplier<String> write;   // returns null on success, otherwise the error
+        int attempts = 0;
+
+        ConfigWrite(String key, Supplier<String> write) {
+            this.key = key;
+            this.write = write;
+        }
+    }
+
+    public static MotorConfigQueue getInstance() {
+        if (instance == null) {
+            instance = new MotorConfigQueue();
+        }
+        return instance;
+    }
+
+    private MotorConfigQueue() {
+        Thread writerThread = new Thread(this::drainLoop, "MotorConfigQueue");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues a SparkMax parameter write
+     *
+     * @param key   controller name as registered with the CANBandwidthManager,
+     *              then the parameter, e.g. "Shooter/Backspin/P"
+     * @param write performs the write and returns the controller response
+     */
+    public void enqueueRev(String key, Supplier<REVLibError> write) {
+        enqueue(new ConfigWrite(key, () -> {
+            REVLibError result = write.get();
+            return (result == REVLibError.kOk) ? null : result.name();
+        }));
+    }
+
+    /**
+     * Queues a TalonFX / CTRE parameter write
+     *
+     * @param key   controller name as registered with the CANBandwidthManager,
+     *              then the parameter, e.g. "Drive/FL/SupplyLimit"
+     * @param write performs the write and returns the controller response
+     */
+    public void enqueueCtre(String key, Supplier<ErrorCode> write) {
+        enqueue(new ConfigWrite(key, () -> {
+            ErrorCode result = write.get();
+            return (result == ErrorCode.OK) ? null : result.name();
+        }));
+    }
+
+    private synchronized void enqueue(ConfigWrite write) {
+        // Remove first so a replaced write moves to the back of the queue
+        pending.remove(write.key);
+        pending.put(write.key, write);
+        notifyAll();
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized int getCompletedCount() {
+        return completed;
+    }
+
+    public synchronized int getFailedCount() {
+        return failed;
+    }
+
+    private synchronized ConfigWrite next() throws InterruptedException {
+        while (pending.isEmpty()) {
+            wait();
+        }
+        Iterator<ConfigWrite> it = pending.values().iterator();
+        ConfigWrite write = it.next();
+        it.remove();
+        return write;
+    }
+
+    private synchronized void finished(ConfigWrite write, String error) {
+        if (error == null) {
+            completed++;
+        } else if (write.attempts < MAX_ATTEMPTS && !pending.containsKey(write.key)) {
+            pending.put(write.key, write);  // retry unless superseded
+        } else {
+            failed++;
+            DriverStation.reportWarning("Config write " + write.key + " failed: " + error, false);
+            SmartDashboard.putString("CANConfig/LastError", write.key + ": " + error);
+        }
+        SmartDashboard.putNumber("CANConfig/Pending", pending.size());
+        SmartDashboard.putNumber("CANConfig/Completed", completed);
+        SmartDashboard.putNumber("CANConfig/Failed", failed);
+    }
+
+    private void drainLoop() {
+        try {
+            while (true) {
+                ConfigWrite write = next();
+                write.attempts++;
+                String error;
+                try {
+                    error = write.write.get();
+                } catch (RuntimeException e) {
+                    error = e.toString();
+                }
+                finished(write, error);
+                Thread.sleep(WRITE_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package frc.robot.util;
+
+/**
+ * Running statistics over a stream of samples in constant memory.
+ *
+ * Mean and variance use Welford's update, which stays accurate over long runs
+ * where summing squares would lose precision. One quantile (the median by
+ * default) is tracked with the P-squared estimator of Jain and Chlamtac, five
+ * markers nudged towards their ideal positions with each sample.
+ *
+ * add() is O(1) and does not allocate.
+ */
+public class StreamingStats {
+    private final double quantile;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min;
+    private double max;
+
+    // P-squared markers: heights, actual positions, desired positions and their increments
+    private final double[] heights = new double[5];
+    private final double[] positions = new double[5];
+    private final double[] desired = new double[5];
+    private final double[] increments = new double[5];
+
+    public StreamingStats() {
+        this(0.5);
+    }
+
+    /**
+     * @param quantile the quantile to estimate, between 0 and 1
+     */
+    public StreamingStats(double quantile) {
+        if (quantile <= 0 || quantile >= 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        this.quantile = quantile;
+        reset();
+    }
+
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+        increments[0] = 0;
+        increments[1] = quantile / 2;
+        increments[2] = quantile;
+        increments[3] = (1 + quantile) / 2;
+        increments[4] = 1;
+    }
+
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+
+        if (count == 1) {
+            min = x;
+            max = x;
+        } else {
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+        }
+
+        addQuantile(x);
+    }
+
+    private void addQuantile(double x) {
+        if (count <= 5) {
+            // Insertion sort the first five samples into the markers
+            int i = (int) count - 1;
+            while (i > 0 && heights[i - 1] > x) {
+                heights[i] = heights[i - 1];
+                i--;
+            }
+            heights[i] = x;
+            if (count == 5) {
+                for (int m = 0; m < 5; m++) {
+                    positions[m] = m;
+                    desired[m] = 4 * increments[m];
+                }
+            }
+            return;
+        }
+
+        int k;
+        if (x < heights[0]) {
+            heights[0] = x;
+            k = 0;
+        } else if (x >= heights[4]) {
+            heights[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (k < 3 && x >= heights[k + 1]) {
+                k++;
+            }
+        }
+
+        for (int m = k + 1; m < 5; m++) {
+            positions[m]++;
+        }
+        for (int m = 0; m < 5; m++) {
+            desired[m] += increments[m];
+        }
+
+        for (int m = 1; m < 4; m++) {
+            double d = desired[m] - positions[m];
+            if ((d >= 1 && positions[m + 1] - positions[m] > 1) ||
+                    (d <= -1 && positions[m - 1] - positions[m] < -1)) {
+                int step = (d > 0) ? 1 : -1;
+                double candidate = parabolic(m, step);
+                if (heights[m - 1] < candidate && candidate < heights[m + 1]) {
+                    heights[m] = candidate;
+                } else {
+                    heights[m] = heights[m] + step * (heights[m + step] - heights[m]) / (positions[m + step] - positions[m]);
+                }
+                positions[m] += step;
+            }
+        }
+    }
+
+    private double parabolic(int m, int step) {
+        double below = positions[m] - positions[m - 1];
+        double above = positions[m + 1] - positions[m];
+        return heights[m] + step / (positions[m + 1] - positions[m - 1]) *
+            ((below + step) * (heights[m + 1] - heights[m]) / above +
+             (above - step) * (heights[m] - heights[m - 1]) / below);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Mean of all samples, 0 if there are none
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Sample variance, 0 with fewer than two samples
+     */
+    public double getVariance() {
+        return (count > 1) ? m2 / (count - 1) : 0.0;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Smallest sample, NaN if there are none
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Largest sample, NaN if there are none
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Estimated value of the tracked quantile, NaN if there are no samples.
+     * Exact for fewer than five samples.
+     */
+    public double getQuantile() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < 5) {
+            // Markers hold the sorted samples so far
+            return heights[(int) Math.round(quantile * (count - 1))];
+        }
+        return heights[2];
+    }
+}
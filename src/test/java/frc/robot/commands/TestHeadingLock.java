@@ -0,0 +1,47 @@
+package frc.robot.commands;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystems.RotationController;
+
+public class TestHeadingLock {
+    private HeadingLock headingLock;
+
+    @Before
+    public void setUp() {
+        assert HAL.initialize(500, 0); // initialize the HAL, crash if failed
+        headingLock = new HeadingLock(new RotationController());
+        headingLock.reset(0);
+    }
+
+    @Test
+    public void testHoldsReleasedHeading() {
+        headingLock.calculate(0.0, 90.0, -1, true, 0);
+        Assert.assertTrue(headingLock.isLocked());
+        Assert.assertEquals(0.0, headingLock.calculate(0.0, 90.0, -1, true, 0), 0.01);
+        // Pushed off the heading, turns back
+        Assert.assertTrue(headingLock.calculate(0.0, 80.0, -1, true, 0) > 0.0);
+    }
+
+    @Test
+    public void testZeroingGyroWhileLockedDoesNotTurn() {
+        for (int i = 0; i < 5; i++) {
+            headingLock.calculate(0.0, 90.0, -1, true, 0);
+        }
+        // Driver zeroes the gyro, the robot hasn't moved but now reads 0
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0.0, headingLock.calculate(0.0, 0.0, -1, true, 1), 0.01);
+        }
+        Assert.assertTrue(headingLock.isLocked());
+    }
+
+    @Test
+    public void testDriverRotationPassesThrough() {
+        headingLock.calculate(0.0, 90.0, -1, true, 0);
+        Assert.assertEquals(1.0, headingLock.calculate(1.0, 90.0, -1, true, 0), 0.0);
+        Assert.assertFalse(headingLock.isLocked());
+    }
+}
@@ -0,0 +1,133 @@
+package frc.robot.subsystems.DMS;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import frc.robot.subsystems.DMS.LEDProtocol.Field;
+
+public class TestLEDProtocol {
+    private LEDProtocol.Encoder encoder;
+    private LEDProtocol.Decoder decoder;
+    private byte[] frame;
+
+    @Before
+    public void setup() {
+        encoder = new LEDProtocol.Encoder();
+        decoder = new LEDProtocol.Decoder();
+        frame = new byte[LEDProtocol.MAX_FRAME_LENGTH];
+    }
+
+    private int send(double now) {
+        int length = encoder.encode(frame, now);
+        decoder.accept(frame, length);
+        return length;
+    }
+
+    @Test
+    public void testFullFrameRoundTrip() {
+        encoder.set(Field.RobotState, 3);
+        encoder.set(Field.ClimbSeconds, 30);
+        encoder.setAlertMask(0x80010203);
+        send(0.0);
+
+        Assert.assertEquals(LEDProtocol.TYPE_FULL, frame[3]);
+        Assert.assertTrue(decoder.isSynced());
+        Assert.assertEquals(3, decoder.get(Field.RobotState));
+        Assert.assertEquals(30, decoder.get(Field.ClimbSeconds));
+        Assert.assertEquals(0x80010203, decoder.getAlertMask());
+    }
+
+    @Test
+    public void testOnlyChangesAreSent() {
+        send(0.0);
+        Assert.assertEquals(0, encoder.encode(frame, 0.25));
+
+        encoder.set(Field.DriveFL, 2);
+        int length = send(0.5);
+        Assert.assertEquals(LEDProtocol.TYPE_DELTA, frame[3]);
+        Assert.assertEquals(9, length);
+        Assert.assertEquals(2, decoder.get(Field.DriveFL));
+    }
+
+    @Test
+    public void testKeyframeEverySecond() {
+        send(0.0);
+        Assert.assertEquals(0, encoder.encode(frame, 0.9));
+        send(1.0);
+        Assert.assertEquals(LEDProtocol.TYPE_FULL, frame[3]);
+        Assert.assertEquals(2, decoder.getFramesReceived());
+    }
+
+    @Test
+    public void testCorruptFrameIsRejected() {
+        send(0.0);
+        encoder.set(Field.DriveFL, 1);
+        int length = encoder.encode(frame, 0.5);
+        frame[6] ^= 0x01;
+        decoder.accept(frame, length);
+
+        Assert.assertEquals(1, decoder.getBadFrames());
+        Assert.assertFalse(decoder.isSynced());
+        Assert.assertEquals(0, decoder.get(Field.DriveFL));
+    }
+
+    @Test
+    public void testDeltasIgnoredAfterMissedFrame() {
+        send(0.0);
+        encoder.set(Field.DriveFL, 1);
+        encoder.encode(frame, 0.5);  // lost on the wire
+        encoder.set(Field.SteerFL, 5);
+        send(0.6);
+
+        Assert.assertEquals(1, decoder.getMissedFrames());
+        Assert.assertFalse(decoder.isSynced());
+        Assert.assertEquals(0, decoder.get(Field.SteerFL));
+
+        send(1.0);
+        Assert.assertTrue(decoder.isSynced());
+        Assert.assertEquals(1, decoder.get(Field.DriveFL));
+        Assert.assertEquals(5, decoder.get(Field.SteerFL));
+    }
+
+    @Test
+    public void testResyncsAfterGarbage() {
+        byte[] garbage = { 0x12, (byte) 0xFF, 0x00, 0x55 };
+        decoder.accept(garbage, garbage.length);
+        encoder.set(Field.Alliance, 2);
+        send(0.0);
+
+        Assert.assertTrue(decoder.isSynced());
+        Assert.assertEquals(2, decoder.get(Field.Alliance));
+    }
+
+    @Test
+    public void testKeyframeAfterDroppedFrame() {
+        send(0.0);
+        encoder.set(Field.DriveFL, 1);
+        encoder.encode(frame, 0.5);  // replaced in the writer before it was sent
+        encoder.set(Field.SteerFL, 5);
+        encoder.encode(frame, 0.5);  // replaced too, the writer reported the drop
+        encoder.requestKeyframe();
+        send(0.5);
+
+        Assert.assertEquals(LEDProtocol.TYPE_FULL, frame[3]);
+        Assert.assertTrue(decoder.isSynced());
+        Assert.assertEquals(1, decoder.get(Field.DriveFL));
+        Assert.assertEquals(5, decoder.get(Field.SteerFL));
+    }
+
+    @Test
+    public void testVersion1Frame() {
+        encoder.set(Field.DriveFL, 2);
+        encoder.set(Field.VisionTarget, 1);
+        encoder.setAlertMask(0xFF);
+        int length = encoder.encodeV1(frame);
+
+        Assert.assertEquals(15, length);
+        Assert.assertEquals(LEDProtocol.START, frame[0] & 0xFF);
+        Assert.assertEquals(2, frame[1]);
+        Assert.assertEquals(1, frame[13]);
+        Assert.assertEquals(LEDProtocol.END, frame[14] & 0xFF);
+    }
+}
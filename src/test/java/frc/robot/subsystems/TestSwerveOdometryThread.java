@@ -0,0 +1,39 @@
+package frc.robot.subsystems;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSwerveOdometryThread {
+    /** Four 5ms passes */
+    private static final double ELAPSED = 0.02;
+
+    private static double[] moved(double... speeds) {
+        double[] moved = new double[speeds.length];
+        for (int i = 0; i < speeds.length; i++) {
+            moved[i] = speeds[i] * ELAPSED;
+        }
+        return moved;
+    }
+
+    @Test
+    public void testAgreeingModulesDontSlip() {
+        double[] x = moved(1.5, 1.52, 1.48, 1.5);
+        double[] y = moved(0.2, 0.2, 0.21, 0.19);
+        Assert.assertEquals(0, SwerveOdometryThread.findDisagreeing(x, y, ELAPSED));
+    }
+
+    @Test
+    public void testOneModuleSlippingIsTheOnlyOneFlagged() {
+        // FR spins 2 m/s faster than the chassis moves
+        double[] x = moved(1.0, 3.0, 1.0, 1.0);
+        double[] y = moved(0.0, 0.0, 0.0, 0.0);
+        Assert.assertEquals(1 << 1, SwerveOdometryThread.findDisagreeing(x, y, ELAPSED));
+    }
+
+    @Test
+    public void testOneModuleSkiddingSidewaysIsTheOnlyOneFlagged() {
+        double[] x = moved(0.0, 0.0, 0.0, 0.0);
+        double[] y = moved(0.5, 0.5, -1.5, 0.5);
+        Assert.assertEquals(1 << 2, SwerveOdometryThread.findDisagreeing(x, y, ELAPSED));
+    }
+}
@@ -4,6 +4,9 @@
 
 package frc.robot.util;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 import org.junit.Assert;
@@ -28,4 +31,89 @@ public class TestBSPrefs {
             Assert.assertNotEquals(-999, offset);
         });
     }
+
+    private static Path tempFile() throws IOException {
+        return Files.createTempDirectory("bsprefs").resolve("prefs.csv");
+    }
+
+    @Test
+    public void testTypedValuesRoundTrip() throws Exception {
+        Path file = tempFile();
+        var prefs = new BSPrefs(file.toString());
+        prefs.setDouble("Offset", 12.5);
+        prefs.setInt("Count", 7);
+        prefs.setBoolean("Enabled", true);
+        prefs.setString("Profile", "Long, high");
+        prefs.savePreferences().get();
+
+        var loaded = new BSPrefs(file.toString());
+        Assert.assertEquals(12.5, loaded.getDouble("Offset", 0), 0.0);
+        Assert.assertEquals(7, loaded.getInt("Count", 0));
+        Assert.assertTrue(loaded.getBoolean("Enabled", false));
+        Assert.assertEquals("Long, high", loaded.getString("Profile", ""));
+        Assert.assertEquals(3, loaded.getInt("Profile", 3));
+        Assert.assertFalse(Files.exists(Path.of(file + ".tmp")));
+    }
+
+    @Test
+    public void testDamagedFileFallsBackToBackup() throws Exception {
+        Path file = tempFile();
+        var prefs = new BSPrefs(file.toString());
+        prefs.setDouble("FLOff", 1.0);
+        prefs.savePreferences().get();
+        prefs.setDouble("FLOff", 2.0);
+        prefs.savePreferences().get();
+
+        // Flip a value without fixing the checksum
+        Files.writeString(file, Files.readString(file).replace("2.0", "9.0"));
+        Assert.assertEquals(1.0, new BSPrefs(file.toString()).getDouble("FLOff", -999), 0.0);
+    }
+
+    @Test
+    public void testUnreadableFilesUseDefaults() throws Exception {
+        Path file = tempFile();
+        Files.writeString(file, "FLOff,1.0\n#crc32,0\n");
+        var prefs = new BSPrefs(file.toString());
+        Assert.assertEquals(-999, prefs.getDouble("FLOff", -999), 0.0);
+    }
+
+    @Test
+    public void testFileWithoutChecksumLoads() throws Exception {
+        Path file = tempFile();
+        Files.writeString(file, "FLOff,1.5\nbad line\n\nFROff, 2.5\n");
+        var prefs = new BSPrefs(file.toString());
+        Assert.assertEquals(1.5, prefs.getDouble("FLOff", -999), 0.0);
+        Assert.assertEquals(2.5, prefs.getDouble("FROff", -999), 0.0);
+    }
+
+    @Test
+    public void testHotReload() throws Exception {
+        Path file = tempFile();
+        Files.writeString(file, "DriveKS,0.1\n");
+        var prefs = new BSPrefs(file.toString());
+        int[] reloads = { 0 };
+        prefs.addReloadListener(() -> reloads[0]++);
+        // Driven by hand, file system events arrive whenever the platform gets to them
+        var watcher = new ConfigWatcher(false);
+        prefs.enableHotReload(watcher);
+
+        Files.writeString(file, "DriveKS,0.2\n");
+        watcher.changed(file.toAbsolutePath(), 1000);
+        watcher.settle(1100);
+        watcher.poll();
+        Assert.assertEquals(0, reloads[0]);
+        Assert.assertEquals(0.1, prefs.getDouble("DriveKS", 0), 0.0);
+
+        watcher.settle(1250);
+        Assert.assertEquals(0.1, prefs.getDouble("DriveKS", 0), 0.0);
+        watcher.poll();
+        Assert.assertEquals(1, reloads[0]);
+        Assert.assertEquals(0.2, prefs.getDouble("DriveKS", 0), 0.0);
+
+        // Touched without a change
+        watcher.changed(file.toAbsolutePath(), 2000);
+        watcher.settle(2250);
+        watcher.poll();
+        Assert.assertEquals(1, reloads[0]);
+    }
 }
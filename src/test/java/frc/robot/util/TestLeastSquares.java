@@ -0,0 +1,37 @@
+package frc.robot.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLeastSquares {
+
+    @Test
+    public void testRecoversShotTableQuadratic() {
+        double[] distance = { 90, 100, 110, 120, 130, 140 };
+        double[] rpm = new double[distance.length];
+        for (int i = 0; i < distance.length; i++) {
+            rpm[i] = (.0487 * distance[i] * distance[i]) - (5.50 * distance[i]) + 845;
+        }
+
+        double[] c = LeastSquares.polyfit(distance, rpm, 2);
+        Assert.assertEquals(845, c[0], 1e-6);
+        Assert.assertEquals(-5.50, c[1], 1e-6);
+        Assert.assertEquals(.0487, c[2], 1e-6);
+        Assert.assertEquals(0.0, LeastSquares.rms(distance, rpm, c), 1e-6);
+    }
+
+    @Test
+    public void testLinearWithNoise() {
+        double[] distance = { 150, 160, 170, 180 };
+        double[] rpm = { 6.76 * 150 + 81 + 5, 6.76 * 160 + 81 - 5, 6.76 * 170 + 81 + 5, 6.76 * 180 + 81 - 5 };
+
+        double[] c = LeastSquares.polyfit(distance, rpm, 1);
+        Assert.assertEquals(6.76, c[1], 0.5);
+        Assert.assertTrue(LeastSquares.rms(distance, rpm, c) < 6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnderdetermined() {
+        LeastSquares.polyfit(new double[] { 100, 100, 100 }, new double[] { 1, 2, 3 }, 1);
+    }
+}
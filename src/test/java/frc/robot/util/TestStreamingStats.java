@@ -0,0 +1,78 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestStreamingStats {
+
+    @Test
+    public void testMeanAndVarianceMatchTwoPass() {
+        double[] values = { 12.5, 13.1, 11.8, 40.0, 12.9, 12.2, 13.4, 12.7 };
+        StreamingStats stats = new StreamingStats();
+        for (double v : values) {
+            stats.add(v);
+        }
+
+        double mean = Arrays.stream(values).average().getAsDouble();
+        double variance = Arrays.stream(values).map(v -> (v - mean) * (v - mean)).sum() / (values.length - 1);
+
+        Assert.assertEquals(values.length, stats.getCount());
+        Assert.assertEquals(mean, stats.getMean(), 1e-9);
+        Assert.assertEquals(variance, stats.getVariance(), 1e-9);
+        Assert.assertEquals(11.8, stats.getMin(), 0.0);
+        Assert.assertEquals(40.0, stats.getMax(), 0.0);
+    }
+
+    @Test
+    public void testLargeOffsetKeepsPrecision() {
+        StreamingStats stats = new StreamingStats();
+        for (int i = 0; i < 10000; i++) {
+            stats.add(1e9 + (i % 2));
+        }
+        Assert.assertEquals(0.25, stats.getVariance(), 1e-3);
+    }
+
+    @Test
+    public void testQuantileEstimate() {
+        Random random = new Random(16);
+        StreamingStats median = new StreamingStats();
+        StreamingStats p90 = new StreamingStats(0.9);
+        double[] values = new double[20000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 10 + 3 * random.nextGaussian();
+            median.add(values[i]);
+            p90.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        Assert.assertEquals(values[10000], median.getQuantile(), 0.05);
+        Assert.assertEquals(values[18000], p90.getQuantile(), 0.1);
+    }
+
+    @Test
+    public void testQuantileWithFewSamples() {
+        StreamingStats stats = new StreamingStats();
+        Assert.assertTrue(Double.isNaN(stats.getQuantile()));
+        stats.add(3);
+        stats.add(1);
+        stats.add(2);
+        Assert.assertEquals(2.0, stats.getQuantile(), 0.0);
+    }
+
+    @Test
+    public void testReset() {
+        StreamingStats stats = new StreamingStats();
+        for (int i = 0; i < 100; i++) {
+            stats.add(i);
+        }
+        stats.reset();
+        stats.add(5);
+        Assert.assertEquals(1, stats.getCount());
+        Assert.assertEquals(5.0, stats.getMean(), 0.0);
+        Assert.assertEquals(5.0, stats.getMin(), 0.0);
+        Assert.assertEquals(5.0, stats.getQuantile(), 0.0);
+    }
+}